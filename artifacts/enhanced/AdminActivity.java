@@ -5,6 +5,7 @@ import android.widget.ArrayAdapter;
 import android.widget.Spinner;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -21,13 +22,17 @@ import java.util.List;
  */
 public class AdminActivity extends AppCompatActivity {
 
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2; // Rows from the end that trigger the next page
+
     private Spinner locationSpinner;
     private RecyclerView inventoryRecyclerView;
 
     private FirebaseFirestore db;
     private final List<String> locationIds = new ArrayList<>();
-    private final List<Item> inventoryItems = new ArrayList<>();
     private InventoryAdapter adapter;
+    private InventoryPager pager;
+    private InventoryRepository.Subscription loadedInventory;
 
     /**
      * Initializes the admin interface, loads all available warehouse locations,
@@ -45,14 +50,31 @@ public class AdminActivity extends AppCompatActivity {
         locationSpinner = findViewById(R.id.locationSpinner);
         inventoryRecyclerView = findViewById(R.id.inventoryRecyclerView);
 
-        adapter = new InventoryAdapter(inventoryItems);
-        inventoryRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new InventoryAdapter();
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        inventoryRecyclerView.setLayoutManager(layoutManager);
         inventoryRecyclerView.setAdapter(adapter);
+        inventoryRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (pager != null && layoutManager.findLastVisibleItemPosition()
+                        >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    pager.loadNextPage();
+                }
+            }
+        });
 
         loadLocations();
         setupLocationSelectionListener();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (pager != null) pager.close();
+        if (loadedInventory != null) loadedInventory.remove();
+    }
+
     /**
      * Loads all warehouse location IDs from the /locations collection in Firestore
      * and populates the spinner with those location IDs.
@@ -94,28 +116,32 @@ public class AdminActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads inventory data for the selected location from Firestore.
-     * Updates the RecyclerView with a fresh list of inventory items.
+     * Loads inventory data for the selected location from Firestore, one page at a time.
+     * Further pages are fetched as the list scrolls near its end, and only loaded
+     * pages receive live updates. Any pager for the previous location is closed.
+     * A location another screen already loaded is shown from memory instead, in full.
+     * The location's Firestore repository is shared for the process, so reselecting a location
+     * does not repeat its setup queries.
      *
      * @param locationId - The Firestore document ID for the selected location
      */
     private void loadInventoryForLocation(String locationId) {
-        db.collection("locations")
-                .document(locationId)
-                .collection("inventory")
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    inventoryItems.clear();
-                    for (DocumentSnapshot doc : snapshot) {
-                        Item item = doc.toObject(Item.class);
-                        if (item != null) {
-                            item.setLocationId(locationId); // Set location reference in the item
-                            inventoryItems.add(item);
-                        }
-                    }
-                    adapter.notifyDataSetChanged();
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Failed to load inventory", Toast.LENGTH_SHORT).show());
+        if (pager != null) pager.close();
+        pager = null;
+        if (loadedInventory != null) loadedInventory.remove();
+        loadedInventory = null;
+
+        LocationInventory inventory = LocationInventory.getIfLoaded(locationId);
+        if (inventory != null) {
+            InventoryStore store = inventory.getStore();
+            loadedInventory = inventory.observeItems(changes ->
+                    adapter.submitList(new ArrayList<>(store.getItems(SortCriterion.NAME, false))));
+            adapter.submitList(new ArrayList<>(store.getItems(SortCriterion.NAME, false)));
+            return;
+        }
+
+        pager = LocationInventory.firestoreRepositoryFor(locationId)
+                .pageItems(PAGE_SIZE, (inventoryItems, endReached) -> adapter.submitList(inventoryItems));
+        pager.loadNextPage();
     }
 }
@@ -0,0 +1,196 @@
+package com.example.projectthree;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AlertDigestQueue sends low inventory alerts from a background thread
+ * Alerts for the same recipient are collected over a window and sent as one digest message,
+ * and each recipient receives at most one message per minimum interval.
+ * Pending alerts and send times are persisted on every change, so alerts are sent, and the
+ * interval kept, after a process restart. A digest that fails transiently is retried with
+ * exponential backoff up to MAX_SEND_ATTEMPTS times; one that can never be sent is dropped.
+ */
+public class AlertDigestQueue {
+
+    private static final String TAG = "AlertDigestQueue";
+    private static final long DEFAULT_WINDOW_MS = 30_000;
+    private static final long DEFAULT_MIN_INTERVAL_MS = 5 * 60_000;
+    private static final int MAX_SEND_ATTEMPTS = 5;
+    private static final long RETRY_BASE_MS = 30_000; // Doubles after each failed attempt
+
+    private static AlertDigestQueue instance;
+
+    private final SmsSender sender;
+    private final PendingAlertStore store;
+    private final long windowMs;
+    private final long minIntervalMs;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    // Only touched on the executor thread
+    private final Map<String, Map<String, Integer>> pending = new LinkedHashMap<>();
+    private final Map<String, Long> lastSentAt = new HashMap<>();
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+    private final Set<String> scheduledRecipients = new HashSet<>();
+
+    private final AtomicLong alertsQueued = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+
+    /**
+     * Returns the process-wide queue that sends through SmsManager
+     * and persists pending alerts in SharedPreferences
+     *
+     * @param context - Any context; only the application context is retained
+     */
+    public static synchronized AlertDigestQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new AlertDigestQueue(new SmsManagerSender(), new PrefsPendingAlertStore(context),
+                    DEFAULT_WINDOW_MS, DEFAULT_MIN_INTERVAL_MS);
+        }
+        return instance;
+    }
+
+    /**
+     * @param sender - Delivers the digest messages
+     * @param store - Persists alerts that have not been sent yet
+     * @param windowMs - How long to collect alerts for a recipient before sending
+     * @param minIntervalMs - Minimum time between two messages to the same recipient
+     */
+    public AlertDigestQueue(SmsSender sender, PendingAlertStore store, long windowMs, long minIntervalMs) {
+        this.sender = sender;
+        this.store = store;
+        this.windowMs = windowMs;
+        this.minIntervalMs = minIntervalMs;
+
+        executor.execute(() -> {
+            lastSentAt.putAll(store.loadLastSent());
+            pending.putAll(store.load());
+            for (String phoneNumber : pending.keySet()) {
+                scheduleFlush(phoneNumber);
+            }
+        });
+    }
+
+    /**
+     * Queues a low inventory alert. A newer alert for the same item and recipient
+     * replaces the older one, so the digest always reports the latest quantity.
+     *
+     * @param phoneNumber - Recipient's phone number
+     * @param itemName - Monitored item's name
+     * @param quantity - Current quantity of item
+     * @return - A future that completes once the alert is saved in the pending alert store
+     */
+    public CompletableFuture<Void> enqueue(String phoneNumber, String itemName, int quantity) {
+        alertsQueued.incrementAndGet();
+        CompletableFuture<Void> stored = new CompletableFuture<>();
+        executor.execute(() -> {
+            Map<String, Integer> items = pending.get(phoneNumber);
+            if (items == null) {
+                items = new LinkedHashMap<>();
+                pending.put(phoneNumber, items);
+            }
+            items.put(itemName, quantity);
+            store.save(pending);
+            stored.complete(null);
+            scheduleFlush(phoneNumber);
+        });
+        return stored;
+    }
+
+    /**
+     * @return - Total alerts handed to the queue
+     */
+    public long getAlertsQueued() {
+        return alertsQueued.get();
+    }
+
+    /**
+     * @return - Total digest messages delivered to the sender
+     */
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    private void scheduleFlush(String phoneNumber) {
+        long now = System.currentTimeMillis();
+        Long lastSent = lastSentAt.get(phoneNumber);
+        long sendAt = Math.max(now + windowMs, lastSent == null ? 0 : lastSent + minIntervalMs);
+        scheduleFlush(phoneNumber, sendAt - now);
+    }
+
+    private void scheduleFlush(String phoneNumber, long delayMs) {
+        if (!scheduledRecipients.add(phoneNumber)) return;
+        executor.schedule(() -> flush(phoneNumber), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush(String phoneNumber) {
+        scheduledRecipients.remove(phoneNumber);
+        Map<String, Integer> items = pending.get(phoneNumber);
+        if (items == null || items.isEmpty()) return;
+
+        try {
+            sender.sendText(phoneNumber, buildDigest(items));
+        } catch (SecurityException | IllegalArgumentException e) {
+            // SEND_SMS was revoked or the number is invalid; retrying cannot help
+            Log.e(TAG, "Dropping alert digest that cannot be sent", e);
+            drop(phoneNumber);
+            return;
+        } catch (RuntimeException e) {
+            int attempts = failedAttempts.merge(phoneNumber, 1, Integer::sum);
+            if (attempts >= MAX_SEND_ATTEMPTS) {
+                Log.e(TAG, "Dropping alert digest after " + attempts + " failed attempts", e);
+                drop(phoneNumber);
+                return;
+            }
+            Log.e(TAG, "Failed to send alert digest, will retry", e);
+            scheduleFlush(phoneNumber, RETRY_BASE_MS << (attempts - 1));
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        failedAttempts.remove(phoneNumber);
+        pending.remove(phoneNumber);
+        store.save(pending);
+        lastSentAt.put(phoneNumber, now);
+        // Send times older than the interval no longer delay anything
+        lastSentAt.values().removeIf(sentAt -> now - sentAt >= minIntervalMs);
+        store.saveLastSent(lastSentAt);
+        messagesSent.incrementAndGet();
+    }
+
+    private void drop(String phoneNumber) {
+        failedAttempts.remove(phoneNumber);
+        pending.remove(phoneNumber);
+        store.save(pending);
+    }
+
+    /**
+     * Builds one message covering every pending item for a recipient
+     *
+     * @param items - Latest quantity by item name
+     * @return - The digest text
+     */
+    static String buildDigest(Map<String, Integer> items) {
+        if (items.size() == 1) {
+            Map.Entry<String, Integer> item = items.entrySet().iterator().next();
+            return "Low inventory alert: '" + item.getKey() + "' is now at " + item.getValue() + " units.";
+        }
+
+        StringBuilder message = new StringBuilder("Low inventory alert for " + items.size() + " items:");
+        for (Map.Entry<String, Integer> item : items.entrySet()) {
+            message.append("\n'").append(item.getKey()).append("' at ").append(item.getValue()).append(" units");
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.projectthree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JVM tests for AlertDigestQueue's coalescing, per-recipient rate limit, persistence
+ * and throughput, using a fake SmsSender and an in-memory PendingAlertStore
+ */
+public class AlertDigestQueueTest {
+
+    private static final long WINDOW_MS = 50;
+    private static final long WAIT_MS = 5_000;
+
+    private final FakeSender sender = new FakeSender();
+    private final FakeStore store = new FakeStore();
+
+    @Test
+    public void coalescesAlertsIntoOneDigestPerRecipient() throws Exception {
+        AlertDigestQueue queue = new AlertDigestQueue(sender, store, WINDOW_MS, 60_000);
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue("5550100", "bolts", 10 - i);
+            queue.enqueue("5550100", "nuts", 20 - i);
+            queue.enqueue("5550199", "washers", 3);
+        }
+
+        sender.awaitMessages(2);
+        Thread.sleep(WINDOW_MS * 2);
+
+        Assert.assertEquals(2, sender.messages.size());
+        Assert.assertEquals(30, queue.getAlertsQueued());
+        Assert.assertEquals(2, queue.getMessagesSent());
+        String digest = sender.messageTo("5550100");
+        Assert.assertTrue(digest, digest.contains("'bolts' at 1 units"));
+        Assert.assertTrue(digest, digest.contains("'nuts' at 11 units"));
+        Assert.assertTrue(store.pending.isEmpty());
+    }
+
+    @Test
+    public void rateLimitsEachRecipient() throws Exception {
+        long minIntervalMs = 500;
+        AlertDigestQueue queue = new AlertDigestQueue(sender, store, WINDOW_MS, minIntervalMs);
+        queue.enqueue("5550100", "bolts", 1);
+        sender.awaitMessages(1);
+
+        queue.enqueue("5550100", "nuts", 2);
+        Thread.sleep(WINDOW_MS * 3);
+        Assert.assertEquals(1, sender.messages.size());
+
+        sender.awaitMessages(2);
+        long gap = sender.sentAt.get(1) - sender.sentAt.get(0);
+        Assert.assertTrue("Sent " + gap + " ms apart", gap >= minIntervalMs);
+    }
+
+    @Test
+    public void savesAlertBeforeCompletingAndSendsSavedAlertsAfterRestart() throws Exception {
+        AlertDigestQueue queue = new AlertDigestQueue(sender, store, 60_000, 60_000);
+        queue.enqueue("5550100", "bolts", 4).get();
+        Assert.assertEquals(Collections.singletonMap("bolts", 4), store.pending.get("5550100"));
+
+        // A new queue over the same store stands in for the restarted process
+        FakeSender afterRestart = new FakeSender();
+        new AlertDigestQueue(afterRestart, store, WINDOW_MS, 60_000);
+        afterRestart.awaitMessages(1);
+        Assert.assertTrue(afterRestart.messageTo("5550100").contains("'bolts'"));
+    }
+
+    @Test
+    public void throughputWithManyRecipients() throws Exception {
+        int recipients = 100;
+        int alerts = 100_000;
+        AlertDigestQueue queue = new AlertDigestQueue(sender, store, 200, 60_000);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < alerts; i++) {
+            queue.enqueue("555" + (i % recipients), "item" + (i % 50), i);
+        }
+        sender.awaitMessages(recipients);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println(alerts + " alerts to " + recipients + " recipients became "
+                + sender.messages.size() + " messages in " + elapsedMs + " ms");
+        Assert.assertEquals(recipients, sender.messages.size());
+        Assert.assertEquals(alerts, queue.getAlertsQueued());
+    }
+
+    private static class FakeSender implements SmsSender {
+        final List<String> recipients = new ArrayList<>();
+        final List<String> messages = new ArrayList<>();
+        final List<Long> sentAt = new ArrayList<>();
+
+        @Override
+        public synchronized void sendText(String phoneNumber, String message) {
+            recipients.add(phoneNumber);
+            messages.add(message);
+            sentAt.add(System.currentTimeMillis());
+        }
+
+        synchronized String messageTo(String phoneNumber) {
+            return messages.get(recipients.indexOf(phoneNumber));
+        }
+
+        void awaitMessages(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + WAIT_MS;
+            while (size() < count) {
+                Assert.assertTrue("Timed out waiting for " + count + " messages", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+        }
+
+        private synchronized int size() {
+            return messages.size();
+        }
+    }
+
+    private static class FakeStore implements PendingAlertStore {
+        volatile Map<String, Map<String, Integer>> pending = new HashMap<>();
+        volatile Map<String, Long> lastSentAt = new HashMap<>();
+
+        @Override
+        public Map<String, Map<String, Integer>> load() {
+            return copy(pending);
+        }
+
+        @Override
+        public void save(Map<String, Map<String, Integer>> pending) {
+            this.pending = copy(pending);
+        }
+
+        @Override
+        public Map<String, Long> loadLastSent() {
+            return new HashMap<>(lastSentAt);
+        }
+
+        @Override
+        public void saveLastSent(Map<String, Long> lastSentAt) {
+            this.lastSentAt = new HashMap<>(lastSentAt);
+        }
+
+        private static Map<String, Map<String, Integer>> copy(Map<String, Map<String, Integer>> pending) {
+            Map<String, Map<String, Integer>> copy = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Integer>> entry : pending.entrySet()) {
+                copy.put(entry.getKey(), new LinkedHashMap<>(entry.getValue()));
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.projectthree;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AlertSettingsCache holds the signed-in user's alert phone number and monitored item thresholds
+ * Both are kept fresh by snapshot listeners attached once per session, so evaluating
+ * thresholds on each inventory snapshot is a local pass with no Firestore reads.
+ */
+public class AlertSettingsCache {
+
+    private static final String TAG = "AlertSettingsCache";
+
+    /**
+     * Receives each monitored item whose threshold was added, changed or removed
+     */
+    public interface ThresholdListener {
+        void onThresholdChanged(String itemName, Integer threshold);
+    }
+
+    /**
+     * Receives the user's alert phone number each time it loads or changes
+     */
+    public interface PhoneNumberListener {
+        void onPhoneNumberChanged(String phoneNumber);
+    }
+
+    private static AlertSettingsCache instance;
+
+    private final String locationId;
+    private final String userId;
+    private final ListenerRegistration phoneRegistration;
+    private final ListenerRegistration thresholdRegistration;
+
+    private String phoneNumber;
+    private final Map<String, Integer> thresholds = new HashMap<>();
+    private ThresholdListener thresholdListener;
+    private PhoneNumberListener phoneNumberListener;
+
+    /**
+     * Returns the session's cache, attaching its listeners on first use
+     * A different user or location replaces the previous cache.
+     *
+     * @param locationId - The location the user belongs to
+     * @param userId - The signed-in user's UID
+     */
+    public static synchronized AlertSettingsCache getInstance(String locationId, String userId) {
+        if (instance != null && (!instance.locationId.equals(locationId) || !instance.userId.equals(userId))) {
+            release();
+        }
+        if (instance == null) {
+            instance = new AlertSettingsCache(locationId, userId);
+        }
+        return instance;
+    }
+
+    /**
+     * Detaches the listeners and drops the cached settings (e.g., on logout)
+     */
+    public static synchronized void release() {
+        if (instance == null) return;
+        instance.phoneRegistration.remove();
+        instance.thresholdRegistration.remove();
+        instance = null;
+    }
+
+    private AlertSettingsCache(String locationId, String userId) {
+        this.locationId = locationId;
+        this.userId = userId;
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+
+        phoneRegistration = db.collection("locations")
+                .document(locationId)
+                .collection("users")
+                .document(userId)
+                .addSnapshotListener((userDoc, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Failed to listen for user phone number", error);
+                        return;
+                    }
+                    if (userDoc == null) return;
+
+                    String loaded = userDoc.getString("phoneNumber");
+                    if (loaded != null ? loaded.equals(phoneNumber) : phoneNumber == null) return;
+                    phoneNumber = loaded;
+                    if (phoneNumberListener != null) phoneNumberListener.onPhoneNumberChanged(loaded);
+                });
+
+        thresholdRegistration = db.collection("users")
+                .document(userId)
+                .collection("notifications")
+                .addSnapshotListener((snapshot, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Failed to listen for monitored notifications", error);
+                        return;
+                    }
+                    if (snapshot == null) return;
+
+                    for (DocumentChange change : snapshot.getDocumentChanges()) {
+                        String itemName = change.getDocument().getId();
+                        Long threshold = change.getDocument().getLong("threshold");
+
+                        if (change.getType() == DocumentChange.Type.REMOVED || threshold == null) {
+                            thresholds.remove(itemName);
+                            if (thresholdListener != null) thresholdListener.onThresholdChanged(itemName, null);
+                        } else {
+                            thresholds.put(itemName, threshold.intValue());
+                            if (thresholdListener != null) thresholdListener.onThresholdChanged(itemName, threshold.intValue());
+                        }
+                    }
+                });
+    }
+
+    /**
+     * @return - The user's alert phone number, or null if none is set or it has not loaded yet
+     */
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    /**
+     * Sets the listener for threshold changes and replays the thresholds already cached
+     *
+     * @param listener - The listener, or null to stop receiving changes
+     */
+    public void setThresholdListener(ThresholdListener listener) {
+        thresholdListener = listener;
+        if (listener == null) return;
+
+        for (Map.Entry<String, Integer> entry : thresholds.entrySet()) {
+            listener.onThresholdChanged(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Sets the listener for phone number changes
+     *
+     * @param listener - The listener, or null to stop receiving changes
+     */
+    public void setPhoneNumberListener(PhoneNumberListener listener) {
+        phoneNumberListener = listener;
+    }
+
+    /**
+     * @return - Thresholds by monitored item name
+     */
+    public Map<String, Integer> getThresholds() {
+        return Collections.unmodifiableMap(thresholds);
+    }
+}
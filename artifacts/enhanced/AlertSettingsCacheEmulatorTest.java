@@ -0,0 +1,133 @@
+package com.example.projectthree;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Instrumented test against the Firestore emulator (firebase emulators:start --only firestore)
+ * The old alert path read the user doc and every notification doc on each inventory snapshot,
+ * 1 + N reads per snapshot. AlertSettingsCache reads them once, when its listeners attach.
+ * With the client's network disabled after that, evaluating many snapshots must still alert
+ * on every threshold, so no evaluation depends on a read.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AlertSettingsCacheEmulatorTest {
+
+    private static final String EMULATOR_HOST = "10.0.2.2"; // The host machine, from the Android emulator
+    private static final int EMULATOR_PORT = 8080;
+    private static final String LOCATION_ID = "emulator-location";
+    private static final String USER_ID = "emulator-user";
+    private static final int MONITORED_ITEMS = 20;
+    private static final int SNAPSHOTS = 500;
+    private static final long WAIT_MS = 10_000;
+
+    private static boolean emulatorConnected;
+
+    private FirebaseFirestore db;
+
+    @Before
+    public void setUp() throws Exception {
+        db = FirebaseFirestore.getInstance();
+        if (!emulatorConnected) {
+            db.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+            emulatorConnected = true;
+        }
+        Tasks.await(db.enableNetwork());
+
+        WriteBatch batch = db.batch();
+        batch.set(db.collection("locations").document(LOCATION_ID).collection("users").document(USER_ID),
+                Collections.singletonMap("phoneNumber", "5550100"));
+        for (int i = 0; i < MONITORED_ITEMS; i++) {
+            batch.set(db.collection("users").document(USER_ID).collection("notifications").document("item" + i),
+                    Collections.singletonMap("threshold", 10));
+        }
+        Tasks.await(batch.commit());
+    }
+
+    @Test
+    public void evaluatesSnapshotsWithoutReads() throws Exception {
+        AlertSettingsCache cache = onMain(() -> AlertSettingsCache.getInstance(LOCATION_ID, USER_ID));
+        waitUntil(() -> onMain(() -> cache.getPhoneNumber() != null
+                && cache.getThresholds().size() == MONITORED_ITEMS));
+
+        // From here on, any evaluation that needed a read would miss its threshold
+        Tasks.await(db.disableNetwork());
+        try {
+            int alerts = onMain(() -> {
+                List<String> raised = new ArrayList<>();
+                LowStockAlertEngine engine = new LowStockAlertEngine(0, (itemName, quantity, threshold) ->
+                        raised.add(itemName));
+                for (Map.Entry<String, Integer> entry : cache.getThresholds().entrySet()) {
+                    engine.setThreshold(entry.getKey(), entry.getValue());
+                }
+                for (int snapshot = 0; snapshot < SNAPSHOTS; snapshot++) {
+                    int quantity = snapshot % 2 == 0 ? 50 : 5;
+                    for (int i = 0; i < MONITORED_ITEMS; i++) {
+                        engine.onItemChanged("item" + i, quantity);
+                    }
+                }
+                return raised.size();
+            });
+
+            Assert.assertEquals(MONITORED_ITEMS * SNAPSHOTS / 2, alerts);
+        } finally {
+            Tasks.await(db.enableNetwork());
+        }
+    }
+
+    @Test
+    public void thresholdChangesArriveThroughTheListener() throws Exception {
+        AlertSettingsCache cache = onMain(() -> AlertSettingsCache.getInstance(LOCATION_ID, USER_ID));
+        waitUntil(() -> onMain(() -> cache.getThresholds().size() == MONITORED_ITEMS));
+
+        Map<String, Object> changed = new HashMap<>();
+        changed.put("threshold", 3);
+        Tasks.await(db.collection("users").document(USER_ID).collection("notifications")
+                .document("item0").set(changed));
+
+        waitUntil(() -> onMain(() -> Integer.valueOf(3).equals(cache.getThresholds().get("item0"))));
+    }
+
+    /**
+     * Runs on the main thread, where the cache's listeners deliver, and returns the result
+     */
+    private static <T> T onMain(Callable<T> callable) throws Exception {
+        Object[] result = {null};
+        Exception[] error = {null};
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            try {
+                result[0] = callable.call();
+            } catch (Exception e) {
+                error[0] = e;
+            }
+        });
+        if (error[0] != null) throw error[0];
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    private static void waitUntil(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (!condition.call()) {
+            Assert.assertTrue("Timed out waiting for the emulator", System.currentTimeMillis() < deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.projectthree;
+
+import java.util.Set;
+
+/**
+ * Persists which monitored items are in the LOW alert state with their alert queued, so an item
+ * that already alerted does not alert again after the process restarts or the inventory is reloaded
+ */
+public interface AlertStateStore {
+    Set<String> loadLowItems();
+
+    void saveLowItems(Set<String> lowItems);
+}
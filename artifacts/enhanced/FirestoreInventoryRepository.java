@@ -1,27 +1,83 @@
 package com.example.projectthree;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * FirestoreInventoryRepository abstracts all Firestore operations
  * related to inventory items including CRUD, live updates, and threshold monitoring
+ * Item changes are delivered on the main thread, one list per snapshot.
  */
-public class FirestoreInventoryRepository {
+public class FirestoreInventoryRepository implements InventoryRepository {
+
+    /**
+     * Receives each snapshot's decoded changes on the decode thread, to keep a local copy in sync
+     */
+    interface SyncListener {
+        /**
+         * @param changes - The decoded changes, possibly empty
+         * @param serverIds - Every item ID in the first snapshot confirmed by the server; null for other snapshots
+         */
+        void onSync(List<ItemChange> changes, Set<String> serverIds);
+
+        /**
+         * Called on the decode thread if the listener fails; nothing more is delivered
+         *
+         * @param error - Why the listener stopped
+         */
+        default void onError(Exception error) {}
+    }
 
     private static final String TAG = "FirestoreRepo";
+    static final int MAX_BATCH_WRITES = 500; // Firestore's limit per WriteBatch
+    private static final long QUANTITY_COALESCE_WINDOW_MS = 500;
+
+    // Single thread, so snapshots are decoded and delivered in the order they arrive
+    private static final ExecutorService DECODE_EXECUTOR = Executors.newSingleThreadExecutor();
 
     private final FirebaseFirestore db;
+    private final String locationId;
     private final CollectionReference itemsRef;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final QuantityWriteCoalescer quantityWrites =
+            new QuantityWriteCoalescer(this::writeQuantity, QUANTITY_COALESCE_WINDOW_MS);
+    private final ShardedCounterCache shardedCounters;
+    private final CompletableFuture<Void> shardCountsLoaded;
+    // Consumers of this repository's snapshots, told about shard sums between snapshots
+    private final List<ItemChangeListener> itemChangeListeners = new CopyOnWriteArrayList<>();
+    private final List<SyncListener> syncListeners = new CopyOnWriteArrayList<>();
+    private volatile RetryPolicy readRetryPolicy = RetryPolicy.DEFAULT;
 
     /**
      * Initializes Firestore instance and reference to the sharded 'inventory' collection
@@ -31,54 +87,685 @@ public class FirestoreInventoryRepository {
      */
     public FirestoreInventoryRepository(String locationId) {
         db = FirebaseFirestore.getInstance();
+        this.locationId = locationId;
         itemsRef = db.collection("locations")
                 .document(locationId)
                 .collection("inventory");
+        shardedCounters = new ShardedCounterCache(itemsRef, DECODE_EXECUTOR, item -> {
+            List<ItemChange> changes = Collections.singletonList(
+                    new ItemChange(ItemChange.Type.MODIFIED, item.getItemName(), item));
+            for (ItemChangeListener listener : itemChangeListeners) {
+                listener.onItemChanges(changes);
+            }
+            for (SyncListener sync : syncListeners) {
+                sync.onSync(changes, null);
+            }
+        });
+        shardCountsLoaded = loadShardCounts();
     }
 
     /**
      * Adds a new item to Firestore or overwrites it if the item already exists
+     * An existing sharded item stays sharded, with the new quantity as its total.
      *
      * @param item - The item to be added
      */
-    public void addItem(Item item) {
-        itemsRef.document(item.getItemName()).set(item)
+    @Override
+    public CompletableFuture<Void> addItem(Item item) {
+        quantityWrites.flush(item.getItemName());
+        WriteBatch batch = db.batch();
+        stageSet(batch, item);
+        Task<Void> write = batch.commit()
                 .addOnSuccessListener(aVoid -> Log.d(TAG, "Item added: " + item.getItemName()))
                 .addOnFailureListener(e -> Log.e(TAG, "Error adding item", e));
+        return InventoryFutures.fromTask(write);
+    }
+
+    /**
+     * Sets the policy for reads and transactions, which are safe to retry
+     * Plain writes are never retried here: Firestore already retries them until they commit,
+     * and resending an increment would apply it twice.
+     *
+     * @param policy - Attempts, timeouts and backoff to use
+     */
+    public void setRetryPolicy(RetryPolicy policy) {
+        readRetryPolicy = policy;
+    }
+
+    /**
+     * Writes several items in WriteBatches of up to MAX_BATCH_WRITES writes
+     * Each batch applies atomically; batches commit independently.
+     *
+     * @param items - The items to write
+     * @return - A future that completes when every batch commits, or fails with the first error
+     */
+    @Override
+    public CompletableFuture<Void> addItems(List<Item> items) {
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int pending = 0;
+
+        for (Item item : items) {
+            quantityWrites.flush(item.getItemName());
+            if (pending + writesForSet(item.getItemName()) > MAX_BATCH_WRITES) {
+                commits.add(batch.commit());
+                batch = db.batch();
+                pending = 0;
+            }
+            pending += stageSet(batch, item);
+        }
+        if (pending > 0) commits.add(batch.commit());
+
+        Task<Void> all = Tasks.whenAll(commits)
+                .addOnSuccessListener(aVoid -> Log.d(TAG, "Items added: " + items.size()))
+                .addOnFailureListener(e -> Log.e(TAG, "Error adding items", e));
+        return InventoryFutures.fromTask(all);
     }
 
     /**
      * Updates the quantity and date of an existing item in Firestore
+     * Rapid updates to the same item are coalesced, so only the final value is written.
+     * On the default, mirrored path, the mutation log merges them instead, before they reach Firestore.
      *
      * @param itemName - The name of the item to update
      * @param newQuantity - The new quantity value to set
+     * @return - A future that completes when the (possibly merged) write commits
      */
-    public void updateItemQuantity(String itemName, int newQuantity) {
-        DocumentReference itemRef = itemsRef.document(itemName);
-        String currentDate = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(new Date());
+    @Override
+    public CompletableFuture<Void> updateItemQuantity(String itemName, int newQuantity) {
+        return quantityWrites.update(itemName, newQuantity);
+    }
+
+    /**
+     * @return - Quantity updates absorbed by coalescing instead of being written
+     */
+    public long getQuantityWritesSaved() {
+        return quantityWrites.getWritesSaved();
+    }
 
-        itemRef.update("quantity", newQuantity, "date", currentDate)
-                .addOnSuccessListener(aVoid -> Log.d(TAG, "Item updated: " + itemName))
+    /**
+     * Writes a quantity, along with both the display date and the numeric epochDay used for sorting
+     */
+    private Task<Void> writeQuantity(String itemName, int newQuantity) {
+        WriteBatch batch = db.batch();
+        stageQuantity(batch, itemName, newQuantity, InventoryDates.today());
+        return batch.commit().addOnSuccessListener(aVoid -> Log.d(TAG, "Item updated: " + itemName))
                 .addOnFailureListener(e -> Log.e(TAG, "Error updating item", e));
     }
 
+    /**
+     * Atomically adds delta to an item's quantity on the server using FieldValue.increment
+     * Concurrent adjustments from several devices all apply, with no read or transaction retry.
+     * For an item known to be sharded the increment goes to one random shard, and the item's date
+     * is left as is, so the hot item document itself is never written. An increment sent to the
+     * item document of a sharded item still counts, as its quantity field is part of the total.
+     * An updateItemQuantity still waiting to be coalesced is written first, so this applies on top of it.
+     *
+     * @param itemName - The name of the item to adjust
+     * @param delta - Units to add; negative to remove
+     * @return - A future that completes when the increment commits
+     */
+    @Override
+    public CompletableFuture<Void> adjustQuantity(String itemName, int delta) {
+        quantityWrites.flush(itemName);
+        WriteBatch batch = db.batch();
+        stageIncrement(batch, itemName, delta, InventoryDates.today());
+        Task<Void> write = batch.commit()
+                .addOnSuccessListener(aVoid -> Log.d(TAG, "Item adjusted: " + itemName + " by " + delta))
+                .addOnFailureListener(e -> Log.e(TAG, "Error adjusting item", e));
+        return InventoryFutures.fromTask(write);
+    }
+
+    /**
+     * Applies several quantity increments in WriteBatches of up to MAX_BATCH_WRITES items
+     * Each batch applies atomically; batches commit independently. Sharded items are
+     * incremented on a random shard, like adjustQuantity.
+     *
+     * @param deltas - Units to add, by item name
+     * @return - A future that completes when every batch commits, or fails with the first error
+     */
+    @Override
+    public CompletableFuture<Void> adjustQuantities(Map<String, Integer> deltas) {
+        long today = InventoryDates.today();
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int pending = 0;
+
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            quantityWrites.flush(delta.getKey());
+            stageIncrement(batch, delta.getKey(), delta.getValue(), today);
+            if (++pending == MAX_BATCH_WRITES) {
+                commits.add(batch.commit());
+                batch = db.batch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) commits.add(batch.commit());
+
+        Task<Void> all = Tasks.whenAll(commits)
+                .addOnFailureListener(e -> Log.e(TAG, "Error adjusting items", e));
+        return InventoryFutures.fromTask(all);
+    }
+
+    /**
+     * Adds a logged mutation to a batch, the same way the matching repository call would write it
+     *
+     * @return - Number of writes added, which count toward MAX_BATCH_WRITES
+     */
+    int stageMutation(WriteBatch batch, Mutation mutation) {
+        switch (mutation.type) {
+            case SET:
+                return stageSet(batch, mutation.item);
+            case UPDATE_QUANTITY:
+                return stageQuantity(batch, mutation.itemName, mutation.value, mutation.epochDay);
+            case ADJUST:
+                return stageIncrement(batch, mutation.itemName, mutation.value, mutation.epochDay);
+            default:
+                return stageDelete(batch, mutation.itemName);
+        }
+    }
+
+    /**
+     * @return - Number of writes stageMutation will add for the mutation
+     */
+    int writesFor(Mutation mutation) {
+        return mutation.type == Mutation.Type.ADJUST ? 1 : writesForSet(mutation.itemName);
+    }
+
+    /**
+     * @return - Number of writes stageSet, or any other write that zeroes the shards, adds for the item
+     */
+    int writesForSet(String itemName) {
+        return shardedCounters.getShardCount(itemName) + 1;
+    }
+
+    /**
+     * Stages writing a whole item, merged into its document so a sharded item stays sharded
+     * A sharded item's shards are zeroed, so the written quantity is its total.
+     *
+     * @return - Number of writes added, which count toward MAX_BATCH_WRITES
+     */
+    int stageSet(WriteBatch batch, Item item) {
+        batch.set(itemsRef.document(item.getItemName()), item, SetOptions.merge());
+        return stageZeroShards(batch, item.getItemName()) + 1;
+    }
+
+    /**
+     * Stages an absolute quantity, along with both the display date and the numeric epochDay
+     * used for sorting. The quantity goes to the item document; a sharded item's shards are zeroed.
+     */
+    private int stageQuantity(WriteBatch batch, String itemName, int quantity, long epochDay) {
+        batch.update(itemsRef.document(itemName), "quantity", quantity,
+                "date", InventoryDates.format(epochDay), "epochDay", epochDay);
+        return stageZeroShards(batch, itemName) + 1;
+    }
+
+    /**
+     * @return - Number of shards zeroed, none unless the item is sharded
+     */
+    private int stageZeroShards(WriteBatch batch, String itemName) {
+        int shards = shardedCounters.getShardCount(itemName);
+        for (int shard = 0; shard < shards; shard++) {
+            batch.set(shardRef(itemName, shard), shardValue(0));
+        }
+        return shards;
+    }
+
+    /**
+     * Stages a server-side increment; on a sharded item it goes to one random shard,
+     * and the item's date is left as is so the hot item document is not written
+     */
+    private int stageIncrement(WriteBatch batch, String itemName, int delta, long epochDay) {
+        int shards = shardedCounters.getShardCount(itemName);
+        if (shards > 0) {
+            batch.set(randomShard(itemName, shards), shardIncrement(delta), SetOptions.merge());
+        } else {
+            batch.update(itemsRef.document(itemName), "quantity", FieldValue.increment(delta),
+                    "date", InventoryDates.format(epochDay), "epochDay", epochDay);
+        }
+        return 1;
+    }
+
+    /**
+     * Stages deleting an item along with any shards it has
+     */
+    private int stageDelete(WriteBatch batch, String itemName) {
+        int shards = shardedCounters.getShardCount(itemName);
+        for (int shard = 0; shard < shards; shard++) {
+            batch.delete(shardRef(itemName, shard));
+        }
+        batch.delete(itemsRef.document(itemName));
+        return shards + 1;
+    }
+
+    /**
+     * @return - A future that completes once the shard counts read at construction are recorded,
+     *           so writes staged after it zero every shard of a sharded item
+     */
+    CompletableFuture<Void> shardCountsLoaded() {
+        return shardCountsLoaded;
+    }
+
+    WriteBatch newBatch() {
+        return db.batch();
+    }
+
+    /**
+     * @return - The document recording the last mutation-log sequence this install has committed
+     */
+    DocumentReference mutationAckRef(String clientId) {
+        return db.collection("locations").document(locationId).collection("mutationAcks").document(clientId);
+    }
+
+    /**
+     * @return - A task that completes once every write already handed to Firestore is committed
+     */
+    Task<Void> waitForPendingWrites() {
+        return db.waitForPendingWrites();
+    }
+
     /**
      * Deletes an item from Firestore by its name
      *
      * @param itemName - The name of the item to delete
      */
-    public void deleteItem(String itemName) {
-        itemsRef.document(itemName).delete()
+    @Override
+    public CompletableFuture<Void> deleteItem(String itemName) {
+        quantityWrites.flush(itemName);
+        WriteBatch batch = db.batch();
+        stageDelete(batch, itemName);
+        Task<Void> write = batch.commit()
                 .addOnSuccessListener(aVoid -> Log.d(TAG, "Item deleted: " + itemName))
                 .addOnFailureListener(e -> Log.e(TAG, "Error deleting item", e));
+        return InventoryFutures.fromTask(write);
+    }
+
+    /**
+     * Promotes a hot item to a sharded counter, so its quantity is spread over shardCount
+     * subdocuments and adjustments no longer contend on the single item document.
+     * The current quantity moves into shard 0 and the item's own quantity field is zeroed within
+     * a transaction, retried under the repository's retry policy, so the total is unchanged and
+     * writes made before a device learns of the shards still count. Items that are already
+     * sharded are left as they are. Once it commits, this device's writes go to the shards.
+     *
+     * @param itemName - The item to promote
+     * @param shardCount - Number of shards; each sustains about one write per second
+     * @return - A future that completes when the promotion commits
+     */
+    public CompletableFuture<Void> promoteToSharded(String itemName, int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("shardCount must be at least 1");
+        DocumentReference itemRef = itemsRef.document(itemName);
+        quantityWrites.flush(itemName);
+
+        CompletableFuture<Void> promotion = InventoryFutures.retry(() -> InventoryFutures.fromTask(
+                db.runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = transaction.get(itemRef);
+                    Long current = snapshot.getLong("shardCount");
+                    if (current != null && current > 0) return current.intValue();
+
+                    Long quantity = snapshot.getLong("quantity");
+                    for (int shard = 0; shard < shardCount; shard++) {
+                        transaction.set(shardRef(itemName, shard),
+                                shardValue(shard == 0 && quantity != null ? quantity : 0));
+                    }
+                    transaction.update(itemRef, "quantity", 0, "shardCount", shardCount);
+                    return shardCount;
+                })), readRetryPolicy)
+                .thenAcceptAsync(shards -> shardedCounters.onShardCountLoaded(itemName, shards), DECODE_EXECUTOR);
+        return promotion.whenComplete((aVoid, e) -> {
+            if (e == null) {
+                Log.d(TAG, "Item sharded: " + itemName + " x" + shardCount);
+            } else {
+                Log.e(TAG, "Error sharding item", e);
+            }
+        });
+    }
+
+    private DocumentReference shardRef(String itemName, int shard) {
+        return itemsRef.document(itemName).collection("shards").document(String.valueOf(shard));
+    }
+
+    private DocumentReference randomShard(String itemName, int shards) {
+        return shardRef(itemName, ThreadLocalRandom.current().nextInt(shards));
+    }
+
+    private static Map<String, Object> shardValue(long count) {
+        return Collections.singletonMap("count", count);
+    }
+
+    private static Map<String, Object> shardIncrement(int delta) {
+        return Collections.singletonMap("count", FieldValue.increment(delta));
+    }
+
+    /**
+     * Reads which items are sharded, so writes reach their shards before any snapshot arrives
+     * Served from Firestore's local cache when offline.
+     *
+     * @return - A future that completes, successfully even if the read failed, once the counts are recorded
+     */
+    private CompletableFuture<Void> loadShardCounts() {
+        Query sharded = itemsRef.whereGreaterThan("shardCount", 0);
+        return InventoryFutures.retry(() -> InventoryFutures.fromTask(sharded.get()), readRetryPolicy)
+                .thenAcceptAsync(snapshot -> {
+                    for (DocumentSnapshot doc : snapshot) {
+                        Long shards = doc.getLong("shardCount");
+                        if (shards != null) shardedCounters.onShardCountLoaded(doc.getId(), shards.intValue());
+                    }
+                }, DECODE_EXECUTOR)
+                .exceptionally(e -> {
+                    Log.e(TAG, "Error loading sharded items", e);
+                    return null;
+                });
+    }
+
+    /**
+     * @return - The sum of an item's shards, read once
+     */
+    private CompletableFuture<Long> readShardSum(String itemName) {
+        Query shards = itemsRef.document(itemName).collection("shards");
+        return InventoryFutures.retry(() -> InventoryFutures.fromTask(shards.get()), readRetryPolicy)
+                .thenApply(ShardedCounterCache::sumOf);
+    }
+
+    /**
+     * One-time migration for items created before the derived query fields existed
+     * Writes epochDay, derived from the "yyyy-MM-dd" date text, and nameLower, derived from
+     * the document ID, wherever they are missing. An item that already has its epochDay only
+     * gets nameLower, in WriteBatches. An item without one is migrated in its own transaction,
+     * which derives epochDay from the date as it is when written, so a date changed by another
+     * device after the scan is not overwritten with a stale day.
+     *
+     * @param onComplete - Run once every batch and transaction has committed
+     */
+    public void backfillDerivedFields(Runnable onComplete) {
+        InventoryFutures.retry(() -> InventoryFutures.fromTask(itemsRef.get()), readRetryPolicy)
+                .thenAccept(snapshot -> {
+                    List<Task<?>> commits = new ArrayList<>();
+                    WriteBatch batch = db.batch();
+                    int pending = 0;
+
+                    for (DocumentSnapshot doc : snapshot) {
+                        if (!doc.contains("epochDay")) {
+                            commits.add(backfillEpochDay(doc.getReference()));
+                            continue;
+                        }
+                        if (doc.contains("nameLower")) continue;
+
+                        batch.update(doc.getReference(), "nameLower", doc.getId().toLowerCase(Locale.ROOT));
+                        if (++pending == MAX_BATCH_WRITES) {
+                            commits.add(batch.commit());
+                            batch = db.batch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) commits.add(batch.commit());
+
+                    Tasks.whenAll(commits)
+                            .addOnSuccessListener(aVoid -> {
+                                Log.d(TAG, "Backfilled derived fields in " + commits.size() + " commits");
+                                onComplete.run();
+                            })
+                            .addOnFailureListener(e -> Log.e(TAG, "Error backfilling derived fields", e));
+                })
+                .exceptionally(e -> {
+                    Log.e(TAG, "Error loading items for derived field backfill", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Writes an item's missing epochDay and nameLower from the document as read in the transaction
+     *
+     * @param itemRef - The item to migrate
+     * @return - The transaction's task
+     */
+    private Task<Void> backfillEpochDay(DocumentReference itemRef) {
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot doc = transaction.get(itemRef);
+            if (!doc.exists()) return null;
+            if (doc.contains("epochDay")) {
+                // Another device wrote the item since the scan; its date and epochDay already agree
+                if (!doc.contains("nameLower")) {
+                    transaction.update(itemRef, "nameLower", doc.getId().toLowerCase(Locale.ROOT));
+                }
+                return null;
+            }
+
+            transaction.update(itemRef,
+                    "epochDay", InventoryDates.parseEpochDay(doc.getString("date")),
+                    "nameLower", doc.getId().toLowerCase(Locale.ROOT));
+            return null;
+        });
+    }
+
+    /**
+     * Runs an ordered, filtered query on the server, so only the matching page of items
+     * is transferred. The results are decoded on a background thread.
+     * Transient failures are retried under the repository's retry policy.
+     * A range filter must be on the sort field, which needs only Firestore's single-field indexes;
+     * a filter on any other field throws an IllegalArgumentException.
+     *
+     * @param query - The sort order, filters and limit to apply
+     * @return - A future that completes with the matching items, in query order
+     */
+    public CompletableFuture<List<Item>> queryItems(InventoryQuery query) {
+        Query serverQuery = query.applyTo(itemsRef);
+        return InventoryFutures.retry(() -> InventoryFutures.fromTask(serverQuery.get()), readRetryPolicy)
+                .thenComposeAsync(this::decodeAll, DECODE_EXECUTOR);
+    }
+
+    /**
+     * Fetches one page of items ordered by document ID, which is the item name
+     * For a page that stays live, use pageItems() instead.
+     *
+     * @param startAfter - The last item name of the previous page, or null for the first page
+     * @param pageSize - Maximum number of items to return
+     * @return - A future that completes with the decoded page; transient failures are retried
+     */
+    @Override
+    public CompletableFuture<List<Item>> loadPage(String startAfter, int pageSize) {
+        Query pageQuery = itemsRef.orderBy(FieldPath.documentId());
+        if (startAfter != null) pageQuery = pageQuery.startAfter(startAfter);
+
+        Query limited = pageQuery.limit(pageSize);
+        return InventoryFutures.retry(() -> InventoryFutures.fromTask(limited.get()), readRetryPolicy)
+                .thenComposeAsync(this::decodeAll, DECODE_EXECUTOR);
+    }
+
+    /**
+     * Decodes a query result; must run on the decode thread, which owns the shard cache
+     * Sharded items whose shard sum is not cached have their shards read before the result completes.
+     */
+    private CompletableFuture<List<Item>> decodeAll(QuerySnapshot snapshot) {
+        List<Item> items = new ArrayList<>(snapshot.size());
+        List<CompletableFuture<Void>> shardReads = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : snapshot) {
+            Item item = ItemCodec.decode(doc.getId(), doc.getData(), locationId);
+            Item summed = shardedCounters.applyCachedSum(item);
+            if (summed == null) {
+                int index = items.size();
+                shardReads.add(readShardSum(item.getItemName()).thenAcceptAsync(
+                        sum -> items.set(index, ShardedCounterCache.withSum(item, sum)), DECODE_EXECUTOR));
+            }
+            items.add(summed != null ? summed : item);
+        }
+        return InventoryFutures.joinAll(shardReads).thenApply(done -> items);
+    }
+
+    /**
+     * Creates an importer that bulk loads CSV stock sheets into this location's inventory
+     * using chunked WriteBatch commits
+     *
+     * @return - A new importer; call start() once
+     */
+    public InventoryImporter newImporter() {
+        return new InventoryImporter(this, locationId);
+    }
+
+    /**
+     * Creates a pager over the 'inventory' collection, ordered by item name
+     * Nothing is fetched until the first call to loadNextPage().
+     *
+     * @param pageSize - Number of items fetched per page
+     * @param listener - Receives the items of every materialized page on the main thread
+     * @return - The pager; close it when the screen goes away
+     */
+    public InventoryPager pageItems(int pageSize, InventoryPager.Listener listener) {
+        return new InventoryPager(itemsRef, pageSize, DECODE_EXECUTOR, this::decodeAll, listener);
     }
 
     /**
      * Attaches a real-time listener to the 'inventory' collection
+     * Snapshots are received and decoded on a background thread; only the documents
+     * that changed are decoded, and the resulting changes are posted to the main thread.
+     * Sharded items report their quantity field plus the cached sum of their shards; they are
+     * reported once that sum is known, and again as MODIFIED whenever it changes.
+     * Every listener of this location shares one Firestore listener through SnapshotListenerRegistry.
+     *
+     * @param listener - Receives the decoded changes of each snapshot
+     * @return - The listener's subscription
+     */
+    @Override
+    public Subscription listenToItems(ItemChangeListener listener) {
+        AtomicBoolean removed = new AtomicBoolean();
+        ItemChangeListener onMainThread = changes -> mainHandler.post(() -> {
+            if (!removed.get()) listener.onItemChanges(changes);
+        });
+        boolean[] started = {false};
+
+        itemChangeListeners.add(onMainThread);
+        Subscription shared = SnapshotListenerRegistry.getInstance().<QuerySnapshot>register(
+                "items:" + itemsRef.getPath(), DECODE_EXECUTOR,
+                (executor, events) -> itemsRef.addSnapshotListener(executor, events),
+                (snapshots, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Inventory listener failed", error);
+                        mainHandler.post(() -> {
+                            if (!removed.get()) listener.onError(error);
+                        });
+                        return;
+                    }
+                    if (snapshots == null) return;
+
+                    List<ItemChange> changes = decodeChanges(snapshots, !started[0]);
+                    started[0] = true;
+                    onMainThread.onItemChanges(changes);
+                });
+
+        return () -> {
+            removed.set(true);
+            itemChangeListeners.remove(onMainThread);
+            shared.remove();
+            releaseShardsIfUnused();
+        };
+    }
+
+    /**
+     * Attaches a real-time listener for keeping a local copy of the inventory in sync
+     * Unlike listenToItems, changes stay on the decode thread, and the listener is told once
+     * which items the server confirmed exist, so the copy can drop items deleted while away.
+     *
+     * @param listener - Receives the decoded changes of each snapshot
+     * @return - The listener's subscription
+     */
+    Subscription listenForSync(SyncListener listener) {
+        AtomicBoolean removed = new AtomicBoolean();
+        SyncListener whileSubscribed = (changes, serverIds) -> {
+            if (!removed.get()) listener.onSync(changes, serverIds);
+        };
+        boolean[] started = {false};
+        boolean[] serverConfirmed = {false};
+
+        syncListeners.add(whileSubscribed);
+        Subscription shared = SnapshotListenerRegistry.getInstance().<QuerySnapshot>register(
+                "sync:" + itemsRef.getPath(), DECODE_EXECUTOR,
+                (executor, events) -> itemsRef.addSnapshotListener(executor, MetadataChanges.INCLUDE, events),
+                (snapshots, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Inventory sync listener failed", error);
+                        if (!removed.get()) listener.onError(error);
+                        return;
+                    }
+                    if (snapshots == null) return;
+
+                    List<ItemChange> changes = decodeChanges(snapshots, !started[0]);
+                    started[0] = true;
+                    Set<String> serverIds = null;
+                    if (!serverConfirmed[0] && !snapshots.getMetadata().isFromCache()) {
+                        serverConfirmed[0] = true;
+                        serverIds = new HashSet<>();
+                        for (QueryDocumentSnapshot doc : snapshots) {
+                            serverIds.add(doc.getId());
+                        }
+                    }
+                    if (!changes.isEmpty() || serverIds != null) whileSubscribed.onSync(changes, serverIds);
+                });
+
+        return () -> {
+            removed.set(true);
+            syncListeners.remove(whileSubscribed);
+            shared.remove();
+            releaseShardsIfUnused();
+        };
+    }
+
+    /**
+     * Detaches the shard listeners once nothing listens to this repository
+     * A later listener decodes its first snapshot in full, which attaches them again.
+     */
+    private void releaseShardsIfUnused() {
+        DECODE_EXECUTOR.execute(() -> {
+            if (itemChangeListeners.isEmpty() && syncListeners.isEmpty()) shardedCounters.clear();
+        });
+    }
+
+    /**
+     * Decodes only the documents that changed since the previous snapshot
+     * A listener's first snapshot may be one it joined late, so all of its documents are decoded as ADDED.
      *
-     * @param listener - Firestore EventListener for snapshot updates
+     * @param snapshots - The snapshot to decode
+     * @param first - Whether it is the first snapshot this listener receives
      */
-    public void listenToItems(EventListener<QuerySnapshot> listener) {
-        itemsRef.addSnapshotListener(listener);
+    private List<ItemChange> decodeChanges(QuerySnapshot snapshots, boolean first) {
+        long start = InventoryMetrics.start();
+        List<ItemChange> changes = first ? decodeAllAsAdded(snapshots) : decodeDelta(snapshots);
+        InventoryMetrics.stop(InventoryMetrics.Histogram.SNAPSHOT_DECODE, start);
+        InventoryMetrics.record(InventoryMetrics.Histogram.SNAPSHOT_SIZE, changes.size());
+        InventoryMetrics.increment(InventoryMetrics.Counter.SNAPSHOTS);
+        return changes;
+    }
+
+    /**
+     * Sharded items whose shard sum is not known yet are left out; they are reported once it is
+     */
+    private List<ItemChange> decodeAllAsAdded(QuerySnapshot snapshots) {
+        List<ItemChange> changes = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : snapshots) {
+            Item item = shardedCounters.onItemDecoded(ItemCodec.decode(doc.getId(), doc.getData(), locationId));
+            if (item != null) changes.add(new ItemChange(ItemChange.Type.ADDED, doc.getId(), item));
+        }
+        return changes;
+    }
+
+    private List<ItemChange> decodeDelta(QuerySnapshot snapshots) {
+        List<ItemChange> changes = new ArrayList<>();
+        for (DocumentChange change : snapshots.getDocumentChanges()) {
+            QueryDocumentSnapshot doc = change.getDocument();
+            switch (change.getType()) {
+                case ADDED:
+                case MODIFIED:
+                    Item item = shardedCounters.onItemDecoded(ItemCodec.decode(doc.getId(), doc.getData(), locationId));
+                    if (item == null) break;
+                    ItemChange.Type type = change.getType() == DocumentChange.Type.ADDED
+                            ? ItemChange.Type.ADDED : ItemChange.Type.MODIFIED;
+                    changes.add(new ItemChange(type, doc.getId(), item));
+                    break;
+                case REMOVED:
+                    shardedCounters.onItemRemoved(doc.getId());
+                    changes.add(new ItemChange(ItemChange.Type.REMOVED, doc.getId(), null));
+                    break;
+            }
+        }
+        return changes;
     }
 }
@@ -0,0 +1,160 @@
+package com.example.projectthree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * InMemoryInventoryRepository keeps a location's inventory in a ConcurrentSkipListMap
+ * Every operation is lock-free and completes before it returns, so it needs no Android or
+ * Firebase classes and can drive the screens' hot paths in plain JVM benchmarks.
+ * Each item is updated atomically; changes are delivered through the callback executor.
+ * Changes to the same item made concurrently from several threads may be delivered out of order.
+ */
+public class InMemoryInventoryRepository implements InventoryRepository {
+
+    private final ConcurrentSkipListMap<String, Item> items = new ConcurrentSkipListMap<>();
+    private final List<ItemChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Executor callbackExecutor;
+
+    /**
+     * Creates a repository that delivers changes on the writing thread
+     */
+    public InMemoryInventoryRepository() {
+        this(Runnable::run);
+    }
+
+    /**
+     * @param callbackExecutor - Runs every listener callback
+     */
+    public InMemoryInventoryRepository(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Void> addItem(Item item) {
+        notifyListeners(Collections.singletonList(put(item)));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> addItems(List<Item> newItems) {
+        List<ItemChange> changes = new ArrayList<>(newItems.size());
+        for (Item item : newItems) {
+            changes.add(put(item));
+        }
+        notifyListeners(changes);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateItemQuantity(String itemName, int newQuantity) {
+        long today = InventoryDates.today();
+        Item updated = items.computeIfPresent(itemName, (name, item) -> item.withQuantity(newQuantity, today));
+        return modified(itemName, updated);
+    }
+
+    @Override
+    public CompletableFuture<Void> adjustQuantity(String itemName, int delta) {
+        long today = InventoryDates.today();
+        Item updated = items.computeIfPresent(itemName,
+                (name, item) -> item.withQuantity(item.getQuantity() + delta, today));
+        return modified(itemName, updated);
+    }
+
+    /**
+     * Adjusts every item that exists; unlike a WriteBatch, the set is not applied atomically
+     *
+     * @return - A future that fails if any of the items does not exist
+     */
+    @Override
+    public CompletableFuture<Void> adjustQuantities(Map<String, Integer> deltas) {
+        long today = InventoryDates.today();
+        List<ItemChange> changes = new ArrayList<>(deltas.size());
+        String missing = null;
+
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            Item updated = items.computeIfPresent(delta.getKey(),
+                    (name, item) -> item.withQuantity(item.getQuantity() + delta.getValue(), today));
+            if (updated == null) {
+                missing = delta.getKey();
+            } else {
+                changes.add(new ItemChange(ItemChange.Type.MODIFIED, delta.getKey(), updated));
+            }
+        }
+        notifyListeners(changes);
+        return missing == null ? CompletableFuture.completedFuture(null) : failed(missing);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteItem(String itemName) {
+        if (items.remove(itemName) != null) {
+            notifyListeners(Collections.singletonList(new ItemChange(ItemChange.Type.REMOVED, itemName, null)));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<Item>> loadPage(String startAfter, int pageSize) {
+        ConcurrentNavigableMap<String, Item> tail = startAfter == null ? items : items.tailMap(startAfter, false);
+        List<Item> page = new ArrayList<>(pageSize);
+        for (Item item : tail.values()) {
+            if (page.size() == pageSize) break;
+            page.add(item);
+        }
+        return CompletableFuture.completedFuture(page);
+    }
+
+    /**
+     * Registers the listener, then reports every current item to it as ADDED
+     */
+    @Override
+    public Subscription listenToItems(ItemChangeListener listener) {
+        listeners.add(listener);
+        List<ItemChange> initial = new ArrayList<>(items.size());
+        for (Item item : items.values()) {
+            initial.add(new ItemChange(ItemChange.Type.ADDED, item.getItemName(), item));
+        }
+        callbackExecutor.execute(() -> listener.onItemChanges(initial));
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * @return - Number of items currently stored
+     */
+    public int size() {
+        return items.size();
+    }
+
+    private ItemChange put(Item item) {
+        Item previous = items.put(item.getItemName(), item);
+        ItemChange.Type type = previous == null ? ItemChange.Type.ADDED : ItemChange.Type.MODIFIED;
+        return new ItemChange(type, item.getItemName(), item);
+    }
+
+    private CompletableFuture<Void> modified(String itemName, Item updated) {
+        if (updated == null) return failed(itemName);
+        notifyListeners(Collections.singletonList(new ItemChange(ItemChange.Type.MODIFIED, itemName, updated)));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static CompletableFuture<Void> failed(String itemName) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(new NoSuchElementException("No such item: " + itemName));
+        return future;
+    }
+
+    private void notifyListeners(List<ItemChange> changes) {
+        if (changes.isEmpty()) return;
+        for (ItemChangeListener listener : listeners) {
+            callbackExecutor.execute(() -> listener.onItemChanges(changes));
+        }
+    }
+}
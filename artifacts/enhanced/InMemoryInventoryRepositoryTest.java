@@ -0,0 +1,12 @@
+package com.example.projectthree;
+
+/**
+ * Runs the repository conformance and throughput suite on InMemoryInventoryRepository, on a plain JVM
+ */
+public class InMemoryInventoryRepositoryTest extends InventoryRepositoryContractTest {
+
+    @Override
+    protected InventoryRepository createRepository() {
+        return new InMemoryInventoryRepository();
+    }
+}
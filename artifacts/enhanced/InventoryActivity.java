@@ -3,7 +3,8 @@ package com.example.projectthree;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
-import android.telephony.SmsManager;
+import android.os.Process;
+import android.os.SystemClock;
 import android.text.InputType;
 import android.util.Log;
 import android.view.View;
@@ -13,7 +14,6 @@ import android.widget.Button;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.Spinner;
-import android.widget.TextView;
 import android.widget.Toast;
 import android.Manifest;
 
@@ -22,25 +22,16 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SearchView;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
-import java.text.SimpleDateFormat;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * InventoryActivity manages core inventory features:
@@ -51,30 +42,41 @@ import java.util.regex.Pattern;
  */
 public class InventoryActivity extends AppCompatActivity {
 
+    private static final String TAG = "InventoryActivity";
+
+    // Record operation counts and latencies, exported to METRICS_FILE whenever the screen stops
+    private static final boolean RECORD_METRICS = false;
+    private static final String METRICS_FILE = "inventory_metrics.json";
+
     // UI elements
     private EditText itemNameEditText;
     private EditText itemDetailsEditText;
-    private LinearLayout itemListLayout;
+    private InventoryAdapter inventoryAdapter;
     private Spinner sortSpinner;
     private Spinner orderSpinner;
+    private SortCriterion sortCriterion = SortCriterion.NAME;
     private boolean isDescending = true;
+    private String currentQuery = "";
 
-    // Firebase repository and local cache
-    private FirestoreInventoryRepository repository;
+    // The location's shared inventory, its repository and indexed store
+    private LocationInventory inventory;
+    private InventoryRepository repository;
+    private InventoryStore inventoryStore;
     private LocationManager locationManager;
-    private final List<Item> itemList = new ArrayList<>();
-    private final Map<String, Item> itemMap = new HashMap<>();
+    private InventorySearchPipeline searchPipeline;
+    private boolean firstRowsShown;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_inventory);
+        InventoryMetrics.setEnabled(RECORD_METRICS);
 
         requestSmsPermission();
 
         itemNameEditText = findViewById(R.id.itemNameEditText);
         itemDetailsEditText = findViewById(R.id.itemDetailsEditText);
-        itemListLayout = findViewById(R.id.itemListLayout);
+        RecyclerView itemRecyclerView = findViewById(R.id.itemRecyclerView);
         sortSpinner = findViewById(R.id.sortSpinner);
         orderSpinner = findViewById(R.id.orderSpinner);
         SearchView searchView = findViewById(R.id.searchView);
@@ -88,7 +90,17 @@ public class InventoryActivity extends AppCompatActivity {
             return;
         }
 
-        repository = new FirestoreInventoryRepository(locationId);
+        inventory = LocationInventory.get(this, locationId);
+        repository = inventory.getRepository();
+        inventoryStore = inventory.getStore();
+
+        inventoryAdapter = new InventoryAdapter(item ->
+                reportFailure(repository.deleteItem(item.getItemName()), "Could not delete " + item.getItemName()));
+        itemRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        itemRecyclerView.setAdapter(inventoryAdapter);
+        searchPipeline = new InventorySearchPipeline(inventoryStore,
+                (query, results) -> inventoryAdapter.submitList(results));
+        SnapshotListenerRegistry.bind(this, inventory.observeItems(searchPipeline::onItemChanges));
 
         Button logoutButton = findViewById(R.id.logoutButton);
         Button addItemButton = findViewById(R.id.addItemButton);
@@ -101,6 +113,8 @@ public class InventoryActivity extends AppCompatActivity {
 
         logoutButton.setOnClickListener(v -> {
             FirebaseAuth.getInstance().signOut();
+            AlertSettingsCache.release();
+            LocationInventory.releaseAll();
             Intent intent = new Intent(this, LoginActivity.class);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(intent);
@@ -145,7 +159,8 @@ public class InventoryActivity extends AppCompatActivity {
         searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override
             public boolean onQueryTextSubmit(String query) {
-                filterAndDisplayItems(query);
+                currentQuery = query;
+                refreshDisplayedItems();
                 return true;
             }
 
@@ -159,6 +174,18 @@ public class InventoryActivity extends AppCompatActivity {
         listenToInventoryChanges();
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (InventoryMetrics.isEnabled()) exportMetrics();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (searchPipeline != null) searchPipeline.shutdown();
+    }
+
     /**
      * Requests SMS permissions, if not already granted
      */
@@ -191,33 +218,65 @@ public class InventoryActivity extends AppCompatActivity {
     }
 
     /**
-     * Listener for Firestore changes
+     * Writes a JSON snapshot of the recorded metrics to the app's files directory, off the main thread
      */
-    private void listenToInventoryChanges() {
-        repository.listenToItems((snapshots, error) -> {
-            if (error != null || snapshots == null) return;
-
-            itemMap.clear();
-            itemList.clear();
-
-            for (QueryDocumentSnapshot doc : snapshots) {
-                Item item = doc.toObject(Item.class);
-                itemMap.put(item.getItemName(), item);
-                itemList.add(item);
+    private void exportMetrics() {
+        File file = new File(getFilesDir(), METRICS_FILE);
+        CompletableFuture.runAsync(() -> {
+            try {
+                InventoryMetrics.writeTo(file);
+                Log.d(TAG, "Metrics exported to " + file);
+            } catch (IOException e) {
+                Log.e(TAG, "Error exporting metrics", e);
             }
+        });
+    }
 
-            sortAndDisplayItems();
-            checkThresholdsAndNotify();
+    /**
+     * Shows a toast if the server rejects a write
+     * Writes made offline simply stay pending, so no deadline is applied here.
+     *
+     * @param write - The write's future, from the repository
+     * @param message - What to tell the user if it fails
+     */
+    private void reportFailure(CompletableFuture<Void> write, String message) {
+        write.exceptionally(e -> {
+            Log.e(TAG, message, e);
+            runOnUiThread(() -> Toast.makeText(this, message, Toast.LENGTH_SHORT).show());
+            return null;
         });
     }
 
+    /**
+     * Observes the location's shared inventory, replayed from the local mirror first and then synced from Firestore
+     * The shared inventory applies each change to the store and the alert engine once for the
+     * whole app; this screen only hands the visible list to the adapter to diff. A screen
+     * recreated while the inventory is loaded shows it from memory right away.
+     * Changes are conflated, so a burst of snapshots handled in one go refreshes the list once,
+     * from the latest state. The observer is removed when this activity is destroyed.
+     */
+    private void listenToInventoryChanges() {
+        SnapshotListenerRegistry.bind(this, inventory.changes()
+                .conflate(ContextCompat.getMainExecutor(this))
+                .subscribe(changes -> onInventoryChanged()));
+        if (inventoryStore.size() > 0) onInventoryChanged();
+    }
+
+    private void onInventoryChanged() {
+        refreshDisplayedItems();
+        if (!firstRowsShown && inventoryStore.size() > 0) {
+            firstRowsShown = true;
+            Log.d(TAG, "Time to first row: " + (SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime())
+                    + " ms from process start" + (LocationInventory.USE_LOCAL_MIRROR ? " (local mirror)" : " (Firestore)"));
+        }
+    }
+
     /**
      * Function for adding items to database. Also adds to activity_inventory.xml layout
      */
     private void addItem() {
         String itemName = itemNameEditText.getText().toString().trim();
         String itemDetails = itemDetailsEditText.getText().toString().trim();
-        String date = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(new Date());
 
         if (itemName.isEmpty() || itemDetails.isEmpty()) {
             Toast.makeText(this, "Item info is invalid", Toast.LENGTH_LONG).show();
@@ -232,131 +291,65 @@ public class InventoryActivity extends AppCompatActivity {
             return;
         }
 
-        repository.addItem(new Item(itemName, quantity, date, 0, locationManager.getStoredLocationId()));
+        Item item = new Item(itemName, quantity, InventoryDates.today(), 0, locationManager.getStoredLocationId());
+        reportFailure(repository.addItem(item), "Could not add " + itemName);
         itemNameEditText.setText("");
         itemDetailsEditText.setText("");
     }
 
 
     /**
-     * Sorts the list of inventory items based on selected criteria
+     * Selects the sort index matching the chosen criteria
      * Applies ascending or descending depending on user selection
-     * Refreshes layout with the osrted list
+     * Refreshes the list by walking the already-sorted index, no re-sort needed
      */
     private void sortAndDisplayItems() {
         String selectedSort = sortSpinner.getSelectedItem() != null ?
                 sortSpinner.getSelectedItem().toString() : "Sort by Name";
 
-        Comparator<Item> comparator;
         switch (selectedSort) {
             case "Sort by Quantity":
-                comparator = Comparator.comparingInt(Item::getQuantity);
+                sortCriterion = SortCriterion.QUANTITY;
                 break;
             case "Sort by Date":
-                comparator = Comparator.comparing(item -> {
-                    try {
-                        return new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).parse(item.getDate());
-                    } catch (Exception e) {
-                        return new Date(0);
-                    }
-                });
+                sortCriterion = SortCriterion.DATE;
                 break;
             case "Sort by Name":
             default:
-                comparator = Comparator.comparing(i -> extractNaturalKey(i.getItemName()));
+                sortCriterion = SortCriterion.NAME;
                 break;
         }
 
-        if (isDescending) comparator = comparator.reversed();
-
-        Collections.sort(itemList, comparator);
-
-        itemListLayout.removeAllViews();
-        for (Item item : itemList) {
-            addItemToLayout(item.getItemName(), item.getQuantity(), item.getDate());
-        }
+        refreshDisplayedItems();
     }
 
     /**
-     * Converts an item name containing digits into a format suitable for natural sorting
-     * Ensures values like "item2" will be correctly ordered before "item10"
-     *
-     * @param input - The original item name
-     * @return - A normalized string key with padded numeric values for sorting
-     */
-    private String extractNaturalKey(String input) {
-        Pattern pattern = Pattern.compile("(\\D*)(\\d+)");
-        Matcher matcher = pattern.matcher(input);
-        if (matcher.matches()) {
-            String prefix = matcher.group(1);
-            int number = Integer.parseInt(matcher.group(2));
-            return String.format("%s%010d", prefix, number);
-        }
-        return input;
-    }
-
-    /**
-     * Filters the invenntory items based on search query (by name)
-     * Matching items are displayed in layout, in sort order
+     * Filters the inventory items based on search query (by name)
+     * The search is debounced and runs in the background; matching items
+     * are displayed in the current sort order once typing pauses
      *
      * @param query - Search text entered by user
      */
     private void filterAndDisplayItems(String query) {
-        List<Item> filteredList = new ArrayList<>();
-
-        for (Item item : itemList) {
-            if (item.getItemName().toLowerCase().contains(query.toLowerCase())) {
-                filteredList.add(item);
-            }
-        }
-
-        itemListLayout.removeAllViews();
-        for (Item item : filteredList) {
-            addItemToLayout(item.getItemName(), item.getQuantity(), item.getDate());
+        currentQuery = query;
+        if (query.isEmpty()) {
+            searchPipeline.cancel();
+            refreshDisplayedItems();
+        } else {
+            searchPipeline.submit(query, sortCriterion, isDescending);
         }
     }
 
     /**
-     * Dynamically creates and adds a horizontal layout row for an inventory item
-     * Displays the item's name, quantity, and date, and includes a delete button
-     * that removes the item from the Firestore database as well.
-     *
-     * @param itemName - Name of inventory item
-     * @param quantity - Quantity of inventory item
-     * @param date - Datestamp of item's addition/update
+     * Shows the full inventory in sort order, or while a search is active,
+     * reruns it immediately so results follow the latest data and sort order
      */
-    private void addItemToLayout(String itemName, int quantity, String date) {
-        LinearLayout newItemRow = new LinearLayout(this);
-        newItemRow.setLayoutParams(new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT));
-        newItemRow.setOrientation(LinearLayout.HORIZONTAL);
-
-        TextView itemNameTextView = new TextView(this);
-        itemNameTextView.setLayoutParams(new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1));
-        itemNameTextView.setText(itemName);
-
-        TextView quantityTextView = new TextView(this);
-        quantityTextView.setLayoutParams(new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1));
-        quantityTextView.setText(String.valueOf(quantity));
-
-        TextView dateTextView = new TextView(this);
-        dateTextView.setLayoutParams(new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1));
-        dateTextView.setText(date);
-
-        Button deleteRowBtn = new Button(this);
-        deleteRowBtn.setText("Delete");
-        deleteRowBtn.setLayoutParams(new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.WRAP_CONTENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT));
-        deleteRowBtn.setOnClickListener(v -> repository.deleteItem(itemName));
-
-        newItemRow.addView(itemNameTextView);
-        newItemRow.addView(quantityTextView);
-        newItemRow.addView(dateTextView);
-        newItemRow.addView(deleteRowBtn);
-
-        itemListLayout.addView(newItemRow);
+    private void refreshDisplayedItems() {
+        if (currentQuery.isEmpty()) {
+            inventoryAdapter.submitList(new ArrayList<>(inventoryStore.getItems(sortCriterion, isDescending)));
+        } else {
+            searchPipeline.submitNow(currentQuery, sortCriterion, isDescending);
+        }
     }
 
     /**
@@ -397,7 +390,7 @@ public class InventoryActivity extends AppCompatActivity {
                 return;
             }
 
-            if (!itemMap.containsKey(itemName)) {
+            if (!inventoryStore.contains(itemName)) {
                 Toast.makeText(this, "Item not found in inventory", Toast.LENGTH_LONG).show();
                 return;
             }
@@ -410,81 +403,8 @@ public class InventoryActivity extends AppCompatActivity {
                 return;
             }
 
-            repository.updateItemQuantity(itemName, newQuantity);
+            reportFailure(repository.updateItemQuantity(itemName, newQuantity), "Could not update " + itemName);
             dialog.dismiss();
         });
     }
-
-    /**
-     * Retrieves the user who set the notification's phone number and the monitored items
-     * For each monitored item, compares quantity against stored threshold
-     * If quantity is below threshold, send SMS alert to user's phone number
-     */
-    private void checkThresholdsAndNotify() {
-        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-        if (user == null) return;
-
-        String uid = user.getUid();
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-
-        String locationId = locationManager.getStoredLocationId();
-        if (locationId == null) return;
-
-        db.collection("locations")
-                .document(locationId)
-                .collection("users")
-                .document(uid)
-                .get()
-                .addOnSuccessListener(userDoc -> {
-                    String phone = userDoc.getString("phoneNumber");
-                    if (phone == null || phone.isEmpty()) {
-                        return;
-                    }
-
-                    db.collection("users")
-                            .document(uid)
-                            .collection("notifications")
-                            .get()
-                            .addOnSuccessListener(snapshot -> {
-
-                                for (DocumentSnapshot doc : snapshot) {
-                                    String itemName = doc.getId();
-                                    Long threshold = doc.getLong("threshold");
-
-                                    if (threshold != null && itemMap.containsKey(itemName)) {
-                                        int quantity = itemMap.get(itemName).getQuantity();
-
-                                        if (quantity <= threshold) {
-                                            sendLowInventorySMS(phone, itemName, quantity);
-                                        }
-                                    } else if (!itemMap.containsKey(itemName)) {
-                                    }
-                                }
-                            })
-                            .addOnFailureListener(e -> Log.e("THRESHOLD_CHECK", "Failed to load monitored notifications", e));
-                })
-                .addOnFailureListener(e -> Log.e("THRESHOLD_CHECK", "Failed to get user phone number", e));
-    }
-
-
-    /**
-     * Sends a low inventory SMS alert to specified phone number using SmsManager
-     * Message includes item name and current quantity
-     * Displays a toast indicating success/failure of message sending
-     *
-     * @param phoneNumber - Recipient's phone number
-     * @param itemName - Monitored item's name
-     * @param quantity - Current quantity of item
-     */
-    private void sendLowInventorySMS(String phoneNumber, String itemName, int quantity) {
-        String message = "Low inventory alert: '" + itemName + "' is now at " + quantity + " units.";
-
-        try {
-            SmsManager smsManager = SmsManager.getDefault();
-            smsManager.sendTextMessage(phoneNumber, null, message, null, null);
-            Toast.makeText(this, "Alert sent for " + itemName, Toast.LENGTH_SHORT).show();
-        } catch (Exception e) {
-            Toast.makeText(this, "Failed to send SMS: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-        }
-    }
 }
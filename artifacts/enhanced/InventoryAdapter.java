@@ -3,27 +3,78 @@ package com.example.projectthree;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * InventoryAdapter binds a list of inventory items to a RecyclerView.
  * Displays item details such as name, quantity, date, and location.
+ * New lists are diffed against the current one on a background thread,
+ * so only the rows that actually changed are rebound.
  */
 public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.InventoryViewHolder> {
 
-    private final List<Item> itemList;
+    /**
+     * Callback for the delete button shown on each row
+     */
+    public interface OnDeleteClickListener {
+        void onDeleteClick(Item item);
+    }
+
+    private static final DiffUtil.ItemCallback<Item> DIFF_CALLBACK = new DiffUtil.ItemCallback<Item>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.getItemName().equals(newItem.getItemName());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.getQuantity() == newItem.getQuantity()
+                    && oldItem.getEpochDay() == newItem.getEpochDay()
+                    && Objects.equals(oldItem.getLocationId(), newItem.getLocationId());
+        }
+    };
+
+    private final AsyncListDiffer<Item> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final OnDeleteClickListener deleteListener;
+    private final Map<String, Long> stableIds = new HashMap<>(); // Only touched on the main thread
 
     /**
-     * Constructs the InventoryAdapter with a list of items to display.
+     * Constructs a read-only InventoryAdapter that shows each item's location.
+     */
+    public InventoryAdapter() {
+        this(null);
+    }
+
+    /**
+     * Constructs an InventoryAdapter whose rows include a delete button.
      *
-     * @param itemList - List of inventory items
+     * @param deleteListener - Called when a row's delete button is pressed, or null to hide it
      */
-    public InventoryAdapter(List<Item> itemList) {
-        this.itemList = itemList;
+    public InventoryAdapter(OnDeleteClickListener deleteListener) {
+        this.deleteListener = deleteListener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Replaces the displayed items. The list is diffed off the main thread
+     * and must not be modified after it is submitted.
+     * The time until the changed rows are dispatched is recorded as the layout rebuild time.
+     *
+     * @param items - The new list of items to display, in display order
+     */
+    public void submitList(List<Item> items) {
+        long start = InventoryMetrics.start();
+        differ.submitList(items, () -> InventoryMetrics.stop(InventoryMetrics.Histogram.LAYOUT_REBUILD, start));
     }
 
     /**
@@ -32,6 +83,7 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.Inve
      */
     public static class InventoryViewHolder extends RecyclerView.ViewHolder {
         TextView itemNameText, quantityText, dateText, locationText;
+        Button deleteButton;
 
         /**
          * Constructs a new InventoryViewHolder and binds view elements.
@@ -44,11 +96,14 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.Inve
             quantityText = itemView.findViewById(R.id.quantityText);
             dateText = itemView.findViewById(R.id.dateText);
             locationText = itemView.findViewById(R.id.locationText);
+            deleteButton = itemView.findViewById(R.id.deleteButton);
         }
     }
 
     /**
      * Inflates the layout for each inventory row in the RecyclerView.
+     * Rows either show the item's location or a delete button, depending on
+     * whether the adapter was given a delete listener.
      *
      * @param parent - The parent view group
      * @param viewType - The type of view (unused in this context)
@@ -59,7 +114,20 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.Inve
     public InventoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_inventory_row, parent, false);
-        return new InventoryViewHolder(view);
+        InventoryViewHolder holder = new InventoryViewHolder(view);
+
+        if (deleteListener != null) {
+            holder.locationText.setVisibility(View.GONE);
+            holder.deleteButton.setOnClickListener(v -> {
+                int position = holder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    deleteListener.onDeleteClick(differ.getCurrentList().get(position));
+                }
+            });
+        } else {
+            holder.deleteButton.setVisibility(View.GONE);
+        }
+        return holder;
     }
 
     /**
@@ -70,13 +138,37 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.Inve
      */
     @Override
     public void onBindViewHolder(@NonNull InventoryViewHolder holder, int position) {
-        Item item = itemList.get(position);
+        Item item = differ.getCurrentList().get(position);
         holder.itemNameText.setText(item.getItemName());
         holder.quantityText.setText("Qty: " + item.getQuantity());
-        holder.dateText.setText(item.getDate());
+        // Documents written before the epochDay backfill have only the stored date string
+        if (item.getEpochDay() != 0) {
+            holder.dateText.setText(InventoryDates.format(item.getEpochDay()));
+        } else {
+            holder.dateText.setText(item.getDate() != null ? item.getDate() : "");
+        }
         holder.locationText.setText(item.getLocationId());
     }
 
+    /**
+     * Returns a stable ID for the item name, so RecyclerView can keep
+     * rows attached to the same item across list updates.
+     * IDs are handed out in the order names are first seen, so no two names share one.
+     *
+     * @param position - The index of the item in the list
+     * @return The ID assigned to the item's name
+     */
+    @Override
+    public long getItemId(int position) {
+        String name = differ.getCurrentList().get(position).getItemName();
+        Long id = stableIds.get(name);
+        if (id == null) {
+            id = (long) stableIds.size();
+            stableIds.put(name, id);
+        }
+        return id;
+    }
+
     /**
      * Returns the number of items in the adapter.
      *
@@ -84,6 +176,6 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryAdapter.Inve
      */
     @Override
     public int getItemCount() {
-        return itemList.size();
+        return differ.getCurrentList().size();
     }
 }
@@ -0,0 +1,76 @@
+package com.example.projectthree;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Robolectric test that InventoryAdapter only creates views for the rows on screen
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InventoryAdapterTest {
+
+    private static final int ITEM_COUNT = 10_000;
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+
+    // Generous bound for one screen of rows plus the ones RecyclerView keeps for recycling
+    private static final int MAX_VIEWS = 60;
+
+    @Test
+    public void tenThousandItemsCreateOnlyVisibleRows() {
+        Context context = ApplicationProvider.getApplicationContext();
+        RecyclerView recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        CountingAdapter adapter = new CountingAdapter();
+        recyclerView.setAdapter(adapter);
+
+        List<Item> items = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item("item" + i, i, 20_000, 0, "loc"));
+        }
+        adapter.submitList(items);
+        layout(recyclerView);
+
+        Assert.assertEquals(ITEM_COUNT, adapter.getItemCount());
+        Assert.assertTrue("Created " + adapter.created + " views", adapter.created > 0);
+        Assert.assertTrue("Created " + adapter.created + " views", adapter.created <= MAX_VIEWS);
+
+        // Scrolling through the list reuses rows instead of creating one per item
+        for (int position = 0; position < ITEM_COUNT; position += 500) {
+            recyclerView.scrollToPosition(position);
+            layout(recyclerView);
+        }
+        Assert.assertTrue("Created " + adapter.created + " views", adapter.created <= MAX_VIEWS);
+    }
+
+    private static void layout(RecyclerView recyclerView) {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(SCREEN_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(SCREEN_HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+    }
+
+    private static class CountingAdapter extends InventoryAdapter {
+        int created;
+
+        @NonNull
+        @Override
+        public InventoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            created++;
+            return super.onCreateViewHolder(parent, viewType);
+        }
+    }
+}
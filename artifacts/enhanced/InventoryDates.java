@@ -0,0 +1,47 @@
+package com.example.projectthree;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * InventoryDates converts between the numeric epoch-day stored on each item
+ * and the "yyyy-MM-dd" text shown to users and kept for older documents.
+ * The formatter is immutable and thread-safe, so one instance is shared everywhere.
+ */
+public final class InventoryDates {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private InventoryDates() {}
+
+    /**
+     * @return - Today's date as a number of days since 1970-01-01
+     */
+    public static long today() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    /**
+     * @param epochDay - Days since 1970-01-01
+     * @return - The date formatted as "yyyy-MM-dd"
+     */
+    public static String format(long epochDay) {
+        return DATE_FORMAT.format(LocalDate.ofEpochDay(epochDay));
+    }
+
+    /**
+     * Parses a legacy "yyyy-MM-dd" date string
+     *
+     * @param date - The stored date text, possibly null
+     * @return - Days since 1970-01-01, or 0 if the text is missing or malformed
+     */
+    public static long parseEpochDay(String date) {
+        if (date == null) return 0;
+        try {
+            return LocalDate.parse(date, DATE_FORMAT).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.projectthree;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * InventoryDbHelper opens the SQLite copy of one location's inventory
+ * The Items table keeps the columns of the original DatabaseHelper schema and adds epochDay,
+ * so dates sort numerically. Each location gets its own database file.
+ * The Mutations table is the write-ahead log of edits not yet committed to Firestore.
+ * Sorting is done by the in-memory InventoryStore, so only the itemName primary key is indexed.
+ */
+class InventoryDbHelper extends SQLiteOpenHelper {
+
+    private static final int DATABASE_VERSION = 1;
+
+    static final String ITEM_TABLE = "Items";
+    static final String COLUMN_ITEM_NAME = "itemName";
+    static final String COLUMN_QUANTITY = "quantity";
+    static final String COLUMN_DATE_MODIFIED = "dateModified";
+    static final String COLUMN_IS_MONITORED = "isMonitored";
+    static final String COLUMN_MONITORED_THRESHOLD = "threshold";
+    static final String COLUMN_EPOCH_DAY = "epochDay";
+
+    private static final String CREATE_ITEM_TABLE =
+            "CREATE TABLE " + ITEM_TABLE + " (" +
+                    COLUMN_ITEM_NAME + " TEXT PRIMARY KEY, " +
+                    COLUMN_QUANTITY + " INTEGER NOT NULL, " +
+                    COLUMN_DATE_MODIFIED + " TEXT NOT NULL, " +
+                    COLUMN_IS_MONITORED + " INTEGER DEFAULT 0, " +
+                    COLUMN_MONITORED_THRESHOLD + " INTEGER DEFAULT 0, " +
+                    COLUMN_EPOCH_DAY + " INTEGER NOT NULL DEFAULT 0);";
+
+    static final String MUTATION_TABLE = "Mutations";
+    static final String COLUMN_SEQ = "seq";
+    static final String COLUMN_TYPE = "type";
+    static final String COLUMN_VALUE = "value";
+
+    private static final String CREATE_MUTATION_TABLE =
+            "CREATE TABLE " + MUTATION_TABLE + " (" +
+                    COLUMN_SEQ + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_ITEM_NAME + " TEXT NOT NULL, " +
+                    COLUMN_TYPE + " TEXT NOT NULL, " +
+                    COLUMN_VALUE + " INTEGER NOT NULL, " +
+                    COLUMN_EPOCH_DAY + " INTEGER NOT NULL, " +
+                    COLUMN_DATE_MODIFIED + " TEXT, " +
+                    COLUMN_MONITORED_THRESHOLD + " INTEGER DEFAULT 0);";
+
+    static final String WHERE_ITEM_NAME = COLUMN_ITEM_NAME + " = ?";
+
+    // Both bind (quantity or delta, dateModified, epochDay, itemName)
+    static final String SET_QUANTITY_SQL =
+            "UPDATE " + ITEM_TABLE + " SET " + COLUMN_QUANTITY + " = ?, " +
+                    COLUMN_DATE_MODIFIED + " = ?, " + COLUMN_EPOCH_DAY + " = ? WHERE " + WHERE_ITEM_NAME;
+    static final String ADJUST_QUANTITY_SQL =
+            "UPDATE " + ITEM_TABLE + " SET " + COLUMN_QUANTITY + " = " + COLUMN_QUANTITY + " + ?, " +
+                    COLUMN_DATE_MODIFIED + " = ?, " + COLUMN_EPOCH_DAY + " = ? WHERE " + WHERE_ITEM_NAME;
+
+    // Fixed projection, so rows are read by position instead of looking up column names per row
+    static final String[] ITEM_COLUMNS = {
+            COLUMN_ITEM_NAME, COLUMN_QUANTITY, COLUMN_DATE_MODIFIED, COLUMN_EPOCH_DAY, COLUMN_MONITORED_THRESHOLD
+    };
+
+    /**
+     * @param context - Any context; the application context is kept
+     * @param locationId - The location whose inventory this database holds
+     */
+    InventoryDbHelper(Context context, String locationId) {
+        super(context.getApplicationContext(), "Inventory_" + locationId + ".db", null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(CREATE_ITEM_TABLE);
+        db.execSQL(CREATE_MUTATION_TABLE);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // No released version to upgrade from yet
+    }
+
+    /**
+     * @return - The row values for an item, matching the Items table
+     */
+    static ContentValues toValues(Item item) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_ITEM_NAME, item.getItemName());
+        values.put(COLUMN_QUANTITY, item.getQuantity());
+        values.put(COLUMN_DATE_MODIFIED, item.getDate() != null ? item.getDate() : InventoryDates.format(item.getEpochDay()));
+        values.put(COLUMN_IS_MONITORED, item.getThreshold() > 0 ? 1 : 0);
+        values.put(COLUMN_MONITORED_THRESHOLD, item.getThreshold());
+        values.put(COLUMN_EPOCH_DAY, item.getEpochDay());
+        return values;
+    }
+
+    /**
+     * Reads the item at the cursor's current row, which must use ITEM_COLUMNS
+     */
+    static Item fromCursor(Cursor cursor, String locationId) {
+        Item item = new Item(cursor.getString(0), cursor.getInt(1), cursor.getString(2),
+                cursor.getLong(3), cursor.getInt(4), locationId);
+        item.getNaturalKey();
+        return item;
+    }
+
+    /**
+     * Reads every remaining row of a cursor that uses ITEM_COLUMNS
+     */
+    static List<Item> readItems(Cursor cursor, String locationId) {
+        List<Item> items = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            items.add(fromCursor(cursor, locationId));
+        }
+        return items;
+    }
+}
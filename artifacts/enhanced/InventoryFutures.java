@@ -0,0 +1,141 @@
+package com.example.projectthree;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * InventoryFutures composes the CompletableFutures returned by inventory repositories:
+ * bridging Firestore Tasks, bounding calls with deadlines, retrying with backoff,
+ * and joining calls fanned out in parallel.
+ * Timers run on one shared daemon thread, which only completes futures and starts retries.
+ */
+public final class InventoryFutures {
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "InventoryFutures-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private InventoryFutures() {}
+
+    /**
+     * Bridges a Firestore Task to a CompletableFuture
+     */
+    public static <T> CompletableFuture<T> fromTask(Task<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        task.addOnCompleteListener(done -> {
+            if (done.isSuccessful()) {
+                future.complete(done.getResult());
+            } else {
+                future.completeExceptionally(done.getException());
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Bounds a future by a deadline
+     * The underlying operation is not cancelled; a Firestore write that times out here may still commit.
+     *
+     * @param future - The operation to wait for
+     * @param timeoutMs - How long to wait
+     * @return - A future with the operation's outcome, or a TimeoutException once the deadline passes
+     */
+    public static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, long timeoutMs) {
+        if (future.isDone()) return future;
+
+        CompletableFuture<T> bounded = new CompletableFuture<>();
+        ScheduledFuture<?> timer = TIMER.schedule(
+                () -> bounded.completeExceptionally(new TimeoutException("Timed out after " + timeoutMs + " ms")),
+                timeoutMs, TimeUnit.MILLISECONDS);
+        future.whenComplete((value, error) -> {
+            timer.cancel(false);
+            if (error == null) {
+                bounded.complete(value);
+            } else {
+                bounded.completeExceptionally(unwrap(error));
+            }
+        });
+        return bounded;
+    }
+
+    /**
+     * Runs an idempotent operation, retrying retryable failures with jittered exponential backoff
+     *
+     * @param attempt - Starts one attempt of the operation each time it is called
+     * @param policy - Attempt count, timeouts, backoff and which failures to retry
+     * @return - A future with the first successful result, or the last failure
+     */
+    public static <T> CompletableFuture<T> retry(Supplier<CompletableFuture<T>> attempt, RetryPolicy policy) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(policy.getDeadlineMs());
+        runAttempt(attempt, policy, 1, deadlineNanos, result);
+        return result;
+    }
+
+    private static <T> void runAttempt(Supplier<CompletableFuture<T>> attempt, RetryPolicy policy,
+                                       int attemptNumber, long deadlineNanos, CompletableFuture<T> result) {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        CompletableFuture<T> future;
+        try {
+            future = withDeadline(attempt.get(), Math.max(1, Math.min(policy.getAttemptTimeoutMs(), remainingMs)));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            long backoffMs = policy.backoffMs(attemptNumber);
+            boolean timeLeft = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs) < deadlineNanos;
+            if (attemptNumber >= policy.getMaxAttempts() || !timeLeft || !policy.isRetryable(cause)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            TIMER.schedule(() -> runAttempt(attempt, policy, attemptNumber + 1, deadlineNanos, result),
+                    backoffMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Joins operations started in parallel
+     *
+     * @param futures - The running operations
+     * @return - A future with every result in the given order, or the first failure
+     */
+    public static <T> CompletableFuture<List<T>> joinAll(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(done -> {
+            List<T> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * @return - The failure a CompletableFuture wrapped, or the error itself
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.projectthree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JVM tests for InventoryFutures.retry under a RetryPolicy, using a fake operation
+ * that injects transient failures, permanent failures and hung attempts
+ */
+public class InventoryFuturesTest {
+
+    private static final ScheduledExecutorService SERVER = Executors.newScheduledThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "FaultyOperation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 4 attempts within 2s, 100ms per attempt, backoff from 5ms to 50ms
+    private static final RetryPolicy POLICY = new RetryPolicy(4, 5, 50, 100, 2_000,
+            error -> error instanceof TransientException || error instanceof TimeoutException);
+
+    @Test
+    public void transientFailuresAreRetriedUntilSuccess() throws Exception {
+        FaultyOperation operation = new FaultyOperation().failFirst(2, new TransientException());
+
+        Assert.assertEquals("ok", InventoryFutures.retry(operation::call, POLICY).get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(3, operation.attempts.get());
+    }
+
+    @Test
+    public void permanentFailureIsNotRetried() throws Exception {
+        FaultyOperation operation = new FaultyOperation().failFirst(10, new IllegalStateException("denied"));
+
+        Throwable error = failure(InventoryFutures.retry(operation::call, POLICY));
+        Assert.assertTrue(String.valueOf(error), error instanceof IllegalStateException);
+        Assert.assertEquals(1, operation.attempts.get());
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() throws Exception {
+        FaultyOperation operation = new FaultyOperation().failFirst(10, new TransientException());
+
+        Throwable error = failure(InventoryFutures.retry(operation::call, POLICY));
+        Assert.assertTrue(String.valueOf(error), error instanceof TransientException);
+        Assert.assertEquals(POLICY.getMaxAttempts(), operation.attempts.get());
+    }
+
+    @Test
+    public void hungAttemptTimesOutAndIsRetried() throws Exception {
+        FaultyOperation operation = new FaultyOperation().hangFirst(1);
+
+        long start = System.nanoTime();
+        Assert.assertEquals("ok", InventoryFutures.retry(operation::call, POLICY).get(5, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertEquals(2, operation.attempts.get());
+        Assert.assertTrue("Took " + elapsedMs + " ms", elapsedMs >= POLICY.getAttemptTimeoutMs());
+    }
+
+    @Test
+    public void deadlineBoundsTheWholeCall() throws Exception {
+        RetryPolicy shortDeadline = POLICY.withDeadline(250);
+        FaultyOperation operation = new FaultyOperation().hangFirst(Integer.MAX_VALUE);
+
+        long start = System.nanoTime();
+        Throwable error = failure(InventoryFutures.retry(operation::call, shortDeadline));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertTrue(String.valueOf(error), error instanceof TimeoutException);
+        Assert.assertTrue("Took " + elapsedMs + " ms", elapsedMs < shortDeadline.getDeadlineMs() + 200);
+    }
+
+    @Test
+    public void tailLatencyWithRandomFaults() throws Exception {
+        int operations = 1_000;
+        Random random = new Random(42);
+        List<CompletableFuture<Long>> calls = new ArrayList<>(operations);
+
+        for (int i = 0; i < operations; i++) {
+            // Each attempt takes 1-5 ms; one in five fails transiently and one in fifty hangs
+            FaultyOperation operation = new FaultyOperation().randomFaults(new Random(random.nextLong()), 0.2, 0.02);
+            long start = System.nanoTime();
+            calls.add(InventoryFutures.retry(operation::call, POLICY)
+                    .handle((value, error) -> error == null ? System.nanoTime() - start : -1L));
+        }
+        List<Long> latencies = InventoryFutures.joinAll(calls).get(30, TimeUnit.SECONDS);
+
+        List<Long> succeeded = new ArrayList<>();
+        for (long latency : latencies) {
+            if (latency >= 0) succeeded.add(latency);
+        }
+        Collections.sort(succeeded);
+        long p50 = TimeUnit.NANOSECONDS.toMillis(succeeded.get(succeeded.size() / 2));
+        long p99 = TimeUnit.NANOSECONDS.toMillis(succeeded.get(succeeded.size() * 99 / 100));
+        System.out.println(succeeded.size() + "/" + operations + " succeeded; p50 " + p50 + " ms, p99 " + p99 + " ms");
+
+        // Failing all 4 attempts has a chance of about 0.22^4, so a handful of calls at most
+        Assert.assertTrue(succeeded.size() >= operations - 10);
+        Assert.assertTrue("p99 " + p99 + " ms", p99 < POLICY.getDeadlineMs());
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return InventoryFutures.unwrap(e);
+        }
+        Assert.fail("Expected the call to fail");
+        return null;
+    }
+
+    private static class TransientException extends RuntimeException {
+        TransientException() {
+            super("Injected transient failure");
+        }
+    }
+
+    /**
+     * A fake remote call that fails, hangs or succeeds on each attempt as configured
+     */
+    private static class FaultyOperation {
+        final AtomicInteger attempts = new AtomicInteger();
+        private int failures;
+        private RuntimeException failure;
+        private int hangs;
+        private Random random;
+        private double failureRate;
+        private double hangRate;
+
+        FaultyOperation failFirst(int failures, RuntimeException failure) {
+            this.failures = failures;
+            this.failure = failure;
+            return this;
+        }
+
+        FaultyOperation hangFirst(int hangs) {
+            this.hangs = hangs;
+            return this;
+        }
+
+        FaultyOperation randomFaults(Random random, double failureRate, double hangRate) {
+            this.random = random;
+            this.failureRate = failureRate;
+            this.hangRate = hangRate;
+            return this;
+        }
+
+        CompletableFuture<String> call() {
+            int attempt = attempts.incrementAndGet();
+            CompletableFuture<String> result = new CompletableFuture<>();
+            if (attempt <= hangs) return result;
+
+            RuntimeException error = attempt <= failures ? failure : null;
+            long latencyMs = 0;
+            if (random != null) {
+                double roll;
+                synchronized (random) {
+                    roll = random.nextDouble();
+                    latencyMs = 1 + random.nextInt(5);
+                }
+                if (roll < hangRate) return result;
+                if (roll < hangRate + failureRate) error = new TransientException();
+            }
+
+            RuntimeException outcome = error;
+            SERVER.schedule(() -> {
+                if (outcome == null) {
+                    result.complete("ok");
+                } else {
+                    result.completeExceptionally(outcome);
+                }
+            }, latencyMs, TimeUnit.MILLISECONDS);
+            return result;
+        }
+    }
+}
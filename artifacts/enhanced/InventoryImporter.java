@@ -0,0 +1,282 @@
+package com.example.projectthree;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * InventoryImporter bulk loads a stock sheet into a location's inventory
+ *
+ * CSV rows (itemName,quantity[,yyyy-MM-dd]) are streamed and grouped into chunks of
+ * CHUNK_ROWS input rows, each written as one WriteBatch, or two if zeroing the shards of
+ * sharded items does not fit in one. At most MAX_IN_FLIGHT chunks are committing at once.
+ * Chunk boundaries depend only on row numbers, so an import can be resumed by passing the
+ * last checkpoint reported to the listener.
+ * Listener callbacks are delivered on the main thread. An import ends with exactly one of
+ * onComplete or onFailed, once every chunk it sent has committed or failed.
+ */
+public class InventoryImporter {
+
+    private static final String TAG = "InventoryImporter";
+    static final int CHUNK_ROWS = 500; // Firestore's limit per WriteBatch
+    private static final int MAX_IN_FLIGHT = 4;
+
+    /**
+     * Receives progress of a running import
+     */
+    public interface Listener {
+        /**
+         * @param rowsCommitted - Rows written so far, across all committed chunks
+         * @param checkpoint - Number of leading chunks that are all committed; pass it to resume
+         */
+        void onProgress(int rowsCommitted, int checkpoint);
+
+        /**
+         * @param rowNumber - Zero-based data row, not counting the header
+         */
+        void onRowFailed(int rowNumber, String line, String reason);
+
+        void onComplete(int rowsCommitted, int rowsFailed);
+
+        /**
+         * The stock sheet could not be read to the end; resume from the last checkpoint reported
+         *
+         * @param error - Why reading stopped
+         */
+        void onFailed(int rowsCommitted, int rowsFailed, Exception error);
+    }
+
+    private final FirestoreInventoryRepository source;
+    private final String locationId;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor();
+    // Commit callbacks must not run on the import thread, which may be blocked on the semaphore
+    private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+
+    InventoryImporter(FirestoreInventoryRepository source, String locationId) {
+        this.source = source;
+        this.locationId = locationId;
+    }
+
+    /**
+     * Starts the import on a background thread. Each importer runs a single import.
+     *
+     * @param csv - The stock sheet; closed when the import ends
+     * @param resumeFromChunk - A checkpoint from an earlier run, or 0 to start from the top
+     * @param listener - Receives progress, row failures and completion
+     */
+    public void start(Reader csv, int resumeFromChunk, Listener listener) {
+        importExecutor.execute(() -> runImport(csv, resumeFromChunk, listener));
+        importExecutor.shutdown();
+    }
+
+    private void runImport(Reader csv, int resumeFromChunk, Listener listener) {
+        Progress progress = new Progress(resumeFromChunk, listener);
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        Exception error = null;
+
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            String line = reader.readLine();
+            if (line != null && line.toLowerCase(Locale.ROOT).startsWith("itemname")) line = reader.readLine();
+
+            int rowNumber = 0;
+            int chunk = 0;
+            List<WriteBatch> batches = new ArrayList<>();
+            batches.add(source.newBatch());
+            int rowsInChunk = 0;
+            int writesInBatch = 0;
+
+            for (; line != null; line = reader.readLine(), rowNumber++) {
+                if (rowNumber > 0 && rowNumber % CHUNK_ROWS == 0) {
+                    commitChunk(batches, rowsInChunk, chunk++, inFlight, progress);
+                    batches = new ArrayList<>();
+                    batches.add(source.newBatch());
+                    rowsInChunk = 0;
+                    writesInBatch = 0;
+                }
+                if (chunk < resumeFromChunk || line.trim().isEmpty()) continue;
+
+                Item item = parseRow(line, rowNumber, progress);
+                if (item != null) {
+                    if (writesInBatch + source.writesForSet(item.getItemName())
+                            > FirestoreInventoryRepository.MAX_BATCH_WRITES) {
+                        batches.add(source.newBatch());
+                        writesInBatch = 0;
+                    }
+                    writesInBatch += source.stageSet(batches.get(batches.size() - 1), item);
+                    rowsInChunk++;
+                }
+            }
+            commitChunk(batches, rowsInChunk, chunk, inFlight, progress);
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Error reading stock sheet", e);
+            error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        } finally {
+            // Wait for every outstanding commit, whose callbacks need the callback executor
+            inFlight.acquireUninterruptibly(MAX_IN_FLIGHT);
+        }
+        progress.complete(error);
+    }
+
+    private void commitChunk(List<WriteBatch> batches, int rows, int chunk, Semaphore inFlight, Progress progress)
+            throws InterruptedException {
+        if (rows == 0) {
+            progress.chunkCommitted(chunk, 0);
+            return;
+        }
+
+        inFlight.acquire();
+        List<Task<Void>> commits = new ArrayList<>(batches.size());
+        try {
+            for (WriteBatch batch : batches) {
+                commits.add(batch.commit());
+            }
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        Tasks.whenAll(commits).addOnCompleteListener(callbackExecutor, task -> {
+            if (task.isSuccessful()) {
+                progress.chunkCommitted(chunk, rows);
+            } else {
+                Log.e(TAG, "Error committing import chunk " + chunk, task.getException());
+                progress.chunkFailed(rows);
+            }
+            inFlight.release();
+        });
+    }
+
+    /**
+     * Parses one CSV row, reporting rows that cannot be imported
+     *
+     * @return - The item, or null if the row is invalid
+     */
+    private Item parseRow(String line, int rowNumber, Progress progress) {
+        List<String> fields = splitCsvLine(line);
+        if (fields.size() < 2) {
+            progress.rowFailed(rowNumber, line, "Expected itemName,quantity[,date]");
+            return null;
+        }
+
+        String itemName = fields.get(0).trim();
+        if (itemName.isEmpty() || itemName.contains("/")) {
+            progress.rowFailed(rowNumber, line, "Invalid item name");
+            return null;
+        }
+
+        int quantity;
+        try {
+            quantity = Integer.parseInt(fields.get(1).trim());
+        } catch (NumberFormatException e) {
+            progress.rowFailed(rowNumber, line, "Quantity must be a number");
+            return null;
+        }
+
+        long epochDay = InventoryDates.today();
+        if (fields.size() > 2 && !fields.get(2).trim().isEmpty()) {
+            epochDay = InventoryDates.parseEpochDay(fields.get(2).trim());
+            if (epochDay == 0) {
+                progress.rowFailed(rowNumber, line, "Date must be yyyy-MM-dd");
+                return null;
+            }
+        }
+        return new Item(itemName, quantity, epochDay, 0, locationId);
+    }
+
+    /**
+     * Splits a CSV line on commas, honouring double-quoted fields and "" escapes
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Tracks committed rows and the contiguous prefix of committed chunks
+     * Updated from the commit callback thread and the import thread, hence synchronized.
+     */
+    private class Progress {
+        private final Listener listener;
+        private final List<Boolean> committedChunks = new ArrayList<>();
+        private int checkpoint;
+        private int rowsCommitted;
+        private int rowsFailed;
+
+        Progress(int resumeFromChunk, Listener listener) {
+            this.checkpoint = resumeFromChunk;
+            this.listener = listener;
+        }
+
+        synchronized void chunkCommitted(int chunk, int rows) {
+            while (committedChunks.size() <= chunk) committedChunks.add(false);
+            committedChunks.set(chunk, true);
+            while (checkpoint < committedChunks.size() && committedChunks.get(checkpoint)) checkpoint++;
+
+            rowsCommitted += rows;
+            int committed = rowsCommitted;
+            int resumeAt = checkpoint;
+            mainHandler.post(() -> listener.onProgress(committed, resumeAt));
+        }
+
+        synchronized void chunkFailed(int rows) {
+            rowsFailed += rows;
+        }
+
+        synchronized void rowFailed(int rowNumber, String line, String reason) {
+            rowsFailed++;
+            mainHandler.post(() -> listener.onRowFailed(rowNumber, line, reason));
+        }
+
+        synchronized void complete(Exception error) {
+            int committed = rowsCommitted;
+            int failed = rowsFailed;
+            if (error == null) {
+                mainHandler.post(() -> listener.onComplete(committed, failed));
+            } else {
+                mainHandler.post(() -> listener.onFailed(committed, failed, error));
+            }
+            callbackExecutor.shutdown();
+        }
+    }
+}
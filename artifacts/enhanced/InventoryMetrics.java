@@ -0,0 +1,212 @@
+package com.example.projectthree;
+
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * InventoryMetrics records how often inventory operations run and how long they take
+ *
+ * Counters are LongAdders; timings and sizes go to log-linear histograms, so percentiles stay
+ * accurate from microseconds to minutes. Everything is keyed by enum, so recording is a few
+ * atomic adds with no allocation. While disabled, start() skips the clock and every other
+ * method returns after reading one volatile flag.
+ * A snapshot of everything can be exported as JSON, to a file or for a debug screen.
+ */
+public final class InventoryMetrics {
+
+    private static final String TAG = "InventoryMetrics";
+
+    /**
+     * Distributions of timings, in nanoseconds, or of sizes
+     */
+    public enum Histogram {
+        REPOSITORY_ADD_ITEM("repository.addItem"),
+        REPOSITORY_ADD_ITEMS("repository.addItems"),
+        REPOSITORY_UPDATE_QUANTITY("repository.updateItemQuantity"),
+        REPOSITORY_ADJUST_QUANTITY("repository.adjustQuantity"),
+        REPOSITORY_ADJUST_QUANTITIES("repository.adjustQuantities"),
+        REPOSITORY_DELETE_ITEM("repository.deleteItem"),
+        REPOSITORY_LOAD_PAGE("repository.loadPage"),
+        SNAPSHOT_DECODE("snapshot.decode"),
+        SNAPSHOT_SIZE("snapshot.changes", false),
+        LIST_SORT("list.sort"), // Sorted index upkeep per item put or removed in InventoryStore
+        LIST_SEARCH("list.search"),
+        LAYOUT_REBUILD("list.layoutRebuild"),
+        THRESHOLD_EVALUATION("alerts.thresholdEvaluation");
+
+        private final String key;
+        private final boolean nanos;
+
+        Histogram(String key) {
+            this(key, true);
+        }
+
+        Histogram(String key, boolean nanos) {
+            this.key = key;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Event counts that have no duration of their own
+     */
+    public enum Counter {
+        REPOSITORY_FAILURES("repository.failures"),
+        SNAPSHOTS("snapshot.count"),
+        LOW_STOCK_ALERTS("alerts.lowStock"),
+        WRITES_SAVED("writes.saved"); // Edits merged into another write instead of sent on their own
+
+        private final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final LogLinearHistogram[] histograms = new LogLinearHistogram[Histogram.values().length];
+    private static final LongAdder[] counters = new LongAdder[Counter.values().length];
+
+    static {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LogLinearHistogram();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    private static volatile boolean enabled;
+
+    private InventoryMetrics() {}
+
+    public static void setEnabled(boolean enabled) {
+        InventoryMetrics.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return - A start time for stop(), or 0 while disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time elapsed since start(); does nothing if metrics were disabled at start
+     *
+     * @param histogram - Where to record the duration
+     * @param start - The value start() returned
+     */
+    public static void stop(Histogram histogram, long start) {
+        if (start == 0 || !enabled) return;
+        histograms[histogram.ordinal()].record(System.nanoTime() - start);
+    }
+
+    /**
+     * @param histogram - Where to record the value
+     * @param value - A size, or a duration in nanoseconds
+     */
+    public static void record(Histogram histogram, long value) {
+        if (enabled) histograms[histogram.ordinal()].record(value);
+    }
+
+    public static void increment(Counter counter) {
+        if (enabled) counters[counter.ordinal()].increment();
+    }
+
+    /**
+     * Records how long an asynchronous call takes to complete, and counts it if it fails
+     *
+     * @param histogram - Where to record the duration
+     * @param future - The call's future
+     * @return - The same future
+     */
+    public static <T> CompletableFuture<T> time(Histogram histogram, CompletableFuture<T> future) {
+        long start = start();
+        if (start == 0) return future;
+
+        future.whenComplete((value, error) -> {
+            stop(histogram, start);
+            if (error != null) increment(Counter.REPOSITORY_FAILURES);
+        });
+        return future;
+    }
+
+    /**
+     * Clears everything recorded so far
+     */
+    public static void reset() {
+        for (LogLinearHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * Snapshots every counter, and every histogram that recorded something, as JSON
+     * Timings are reported in milliseconds.
+     *
+     * @return - e.g. {"counters": {"snapshot.count": 12}, "histograms": {"snapshot.decode":
+     *           {"unit": "ms", "count": 12, "mean": 0.8, "p50": 0.6, "p90": 1.2, "p99": 3.1, "p999": 3.1, "max": 3.1}}}
+     */
+    public static JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        try {
+            JSONObject counterValues = new JSONObject();
+            for (Counter counter : Counter.values()) {
+                counterValues.put(counter.key, counters[counter.ordinal()].sum());
+            }
+
+            JSONObject histogramValues = new JSONObject();
+            for (Histogram histogram : Histogram.values()) {
+                LogLinearHistogram recorded = histograms[histogram.ordinal()];
+                if (recorded.getCount() == 0) continue;
+
+                double scale = histogram.nanos ? 1_000_000.0 : 1;
+                JSONObject summary = new JSONObject();
+                summary.put("unit", histogram.nanos ? "ms" : "count");
+                summary.put("count", recorded.getCount());
+                summary.put("mean", recorded.getMean() / scale);
+                summary.put("p50", recorded.getValueAtPercentile(50) / scale);
+                summary.put("p90", recorded.getValueAtPercentile(90) / scale);
+                summary.put("p99", recorded.getValueAtPercentile(99) / scale);
+                summary.put("p999", recorded.getValueAtPercentile(99.9) / scale);
+                summary.put("max", recorded.getMax() / scale);
+                histogramValues.put(histogram.key, summary);
+            }
+
+            json.put("counters", counterValues);
+            json.put("histograms", histogramValues);
+        } catch (JSONException e) {
+            Log.e(TAG, "Error building metrics snapshot", e);
+        }
+        return json;
+    }
+
+    /**
+     * Writes the JSON snapshot to a file, replacing it
+     *
+     * @param file - Where to write, e.g. in the app's files directory
+     */
+    public static void writeTo(File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(toJson().toString());
+        }
+    }
+}
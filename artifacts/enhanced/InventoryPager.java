@@ -0,0 +1,218 @@
+package com.example.projectthree;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * InventoryPager loads a location's inventory one page at a time, ordered by item name
+ * Each page is a single listener on orderBy + startAfter + limit, whose first snapshot is the
+ * page, so a page costs one read per item. While it is the last page it is open-ended: items
+ * added after it appear in it, and once it fills up the next page can be loaded. Loading the
+ * next page fixes the current one's end key; from then on it shows only items up to that key,
+ * and if inserts push items up to that key past its limit, it switches to a listener on its
+ * whole key range, so no item ever falls between two pages.
+ * Items are decoded by the repository, so sharded items show their total. Shard increments do
+ * not touch the item document, so a sharded item's total refreshes with its page's next snapshot.
+ */
+public class InventoryPager {
+
+    private static final String TAG = "InventoryPager";
+
+    /**
+     * Receives every materialized item, in name order, on the main thread
+     */
+    public interface Listener {
+        void onItemsChanged(List<Item> items, boolean endReached);
+    }
+
+    /**
+     * Decodes a page's snapshot on the decode executor, adding the shard sums of sharded items
+     */
+    interface Decoder {
+        CompletableFuture<List<Item>> decode(QuerySnapshot snapshot);
+    }
+
+    private final Query orderedQuery;
+    private final int pageSize;
+    private final Executor decodeExecutor;
+    private final Decoder decoder;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final List<Page> pages = new ArrayList<>();
+    private boolean loading;
+    private boolean endReached;
+    private boolean closed;
+
+    InventoryPager(Query inventoryQuery, int pageSize, Executor decodeExecutor, Decoder decoder, Listener listener) {
+        this.orderedQuery = inventoryQuery.orderBy(FieldPath.documentId());
+        this.pageSize = pageSize;
+        this.decodeExecutor = decodeExecutor;
+        this.decoder = decoder;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts listening to the page after the last materialized one, unless a load is already
+     * running or the last page is not full
+     */
+    public void loadNextPage() {
+        if (loading || endReached || closed) return;
+        loading = true;
+
+        String startAfter = null;
+        if (!pages.isEmpty()) {
+            Page last = pages.get(pages.size() - 1);
+            last.close();
+            startAfter = last.endKey;
+        }
+        Page page = new Page(startAfter);
+        pages.add(page);
+        page.listen();
+    }
+
+    public boolean isEndReached() {
+        return endReached;
+    }
+
+    /**
+     * Detaches every page listener; the pager cannot be used afterwards
+     */
+    public void close() {
+        closed = true;
+        for (Page page : pages) {
+            page.detach();
+        }
+        pages.clear();
+    }
+
+    private boolean isLast(Page page) {
+        return !pages.isEmpty() && pages.get(pages.size() - 1) == page;
+    }
+
+    private void publish() {
+        List<Item> items = new ArrayList<>();
+        for (Page page : pages) {
+            items.addAll(page.items);
+        }
+        listener.onItemsChanged(items, endReached);
+    }
+
+    /**
+     * One key range of the collection: (startAfter, endKey], or the first pageSize items
+     * after startAfter while it is the last page. Only touched on the main thread.
+     */
+    private class Page {
+        private final String startAfter;
+        private String endKey; // Null while this is the last page
+        private boolean wholeRange; // Listening to (startAfter, endKey] without a limit
+        private int generation; // Tells snapshots of a replaced listener apart
+        private String lastKey; // Last document ID of the latest snapshot
+        private List<Item> items = new ArrayList<>();
+        private ListenerRegistration registration;
+        // Only touched on the decode executor
+        private CompletableFuture<Void> delivered = CompletableFuture.completedFuture(null);
+
+        Page(String startAfter) {
+            this.startAfter = startAfter;
+        }
+
+        void listen() {
+            Query rangeQuery = startAfter == null ? orderedQuery : orderedQuery.startAfter(startAfter);
+            Query query = wholeRange ? rangeQuery.endAt(endKey) : rangeQuery.limit(pageSize);
+            int listening = ++generation;
+            registration = query.addSnapshotListener(decodeExecutor, (snapshot, error) -> {
+                if (error != null) {
+                    Log.e(TAG, "Inventory page listener failed", error);
+                    mainHandler.post(() -> onFailed(listening));
+                    return;
+                }
+                if (snapshot == null) return;
+
+                CompletableFuture<List<Item>> decoded = decoder.decode(snapshot);
+                int size = snapshot.size();
+                String last = snapshot.isEmpty() ? null : snapshot.getDocuments().get(size - 1).getId();
+                // Shard reads can finish out of order, so snapshots are delivered in the order they came
+                delivered = delivered.thenCompose(aVoid -> decoded)
+                        .thenAccept(items -> mainHandler.post(() -> onSnapshot(listening, items, size, last)))
+                        .exceptionally(e -> {
+                            Log.e(TAG, "Failed to read the shards of an inventory page", e);
+                            return null;
+                        });
+            });
+        }
+
+        /**
+         * Fixes the page's end at its last item, as the next page starts after it
+         */
+        void close() {
+            endKey = lastKey;
+        }
+
+        void detach() {
+            if (registration != null) registration.remove();
+        }
+
+        private void onSnapshot(int listening, List<Item> decoded, int size, String last) {
+            if (closed || listening != generation) return;
+
+            // The limit no longer reaches endKey, so inserts pushed some of the page's items out of it
+            if (endKey != null && !wholeRange && size == pageSize && last.compareTo(endKey) < 0) {
+                wholeRange = true;
+                detach();
+                listen();
+                return;
+            }
+
+            lastKey = last;
+            items = endKey == null ? decoded : upToEndKey(decoded);
+            if (isLast(this)) {
+                loading = false;
+                endReached = size < pageSize;
+            }
+            publish();
+        }
+
+        private void onFailed(int listening) {
+            if (closed || listening != generation) return;
+            if (!isLast(this) || !loading) return;
+
+            // The page never loaded; drop it so the previous page is the open-ended one again
+            loading = false;
+            pages.remove(this);
+            if (!pages.isEmpty()) pages.get(pages.size() - 1).reopen();
+        }
+
+        private void reopen() {
+            endKey = null;
+            if (wholeRange) {
+                wholeRange = false;
+                detach();
+                listen();
+            }
+        }
+
+        /**
+         * Drops the items a limited listener pulled in from the next page after deletes
+         */
+        private List<Item> upToEndKey(List<Item> decoded) {
+            List<Item> inRange = new ArrayList<>(decoded.size());
+            for (Item item : decoded) {
+                if (item.getItemName().compareTo(endKey) > 0) break;
+                inRange.add(item);
+            }
+            return inRange;
+        }
+    }
+}
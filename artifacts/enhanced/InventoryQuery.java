@@ -0,0 +1,115 @@
+package com.example.projectthree;
+
+import com.google.firebase.firestore.Query;
+
+import java.util.Locale;
+
+/**
+ * InventoryQuery describes a server-side view of a location's inventory:
+ * one sort order, optional range filters, and a result limit.
+ * For example, the 50 lowest-quantity items:
+ *
+ *     new InventoryQuery(SortCriterion.QUANTITY, false).limit(50)
+ *
+ * Firestore allows range filters on only one field per query here, and orders by that
+ * field first, so combining filters on different fields, or a filter on a field other
+ * than the sort field, throws an IllegalArgumentException.
+ * Name ordering uses nameLower, which is lexicographic rather than natural order.
+ */
+public class InventoryQuery {
+
+    private final SortCriterion orderBy;
+    private final boolean descending;
+    private Integer maxQuantity;
+    private Long fromEpochDay;
+    private Long toEpochDay;
+    private String namePrefix;
+    private int limit;
+
+    /**
+     * @param orderBy - The field to order results by
+     * @param descending - Whether to order from highest to lowest
+     */
+    public InventoryQuery(SortCriterion orderBy, boolean descending) {
+        this.orderBy = orderBy;
+        this.descending = descending;
+    }
+
+    /**
+     * Keeps only items with quantity <= maxQuantity
+     */
+    public InventoryQuery maxQuantity(int maxQuantity) {
+        this.maxQuantity = maxQuantity;
+        return this;
+    }
+
+    /**
+     * Keeps only items last updated between the two epoch-days, inclusive
+     */
+    public InventoryQuery dateBetween(long fromEpochDay, long toEpochDay) {
+        this.fromEpochDay = fromEpochDay;
+        this.toEpochDay = toEpochDay;
+        return this;
+    }
+
+    /**
+     * Keeps only items whose name starts with the prefix, ignoring case
+     */
+    public InventoryQuery namePrefix(String namePrefix) {
+        this.namePrefix = namePrefix.toLowerCase(Locale.ROOT);
+        return this;
+    }
+
+    /**
+     * Caps the number of documents transferred
+     */
+    public InventoryQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Builds the Firestore query. Firestore requires the range-filtered field to be
+     * ordered first, so a range on a field other than orderBy, which would change the
+     * order and the limited results, throws an IllegalArgumentException.
+     *
+     * @param inventory - The location's inventory collection
+     * @return - The ordered, filtered and limited query
+     */
+    Query applyTo(Query inventory) {
+        String rangeField = null;
+        Query query = inventory;
+
+        if (maxQuantity != null) {
+            rangeField = checkSingleRangeField(rangeField, SortCriterion.QUANTITY.fieldName());
+            query = query.whereLessThanOrEqualTo(rangeField, maxQuantity);
+        }
+        if (fromEpochDay != null) {
+            rangeField = checkSingleRangeField(rangeField, SortCriterion.DATE.fieldName());
+            query = query.whereGreaterThanOrEqualTo(rangeField, fromEpochDay)
+                    .whereLessThanOrEqualTo(rangeField, toEpochDay);
+        }
+        if (namePrefix != null) {
+            rangeField = checkSingleRangeField(rangeField, SortCriterion.NAME.fieldName());
+            query = query.whereGreaterThanOrEqualTo(rangeField, namePrefix)
+                    .whereLessThan(rangeField, namePrefix + '\uf8ff');
+        }
+
+        if (rangeField != null && !rangeField.equals(orderBy.fieldName())) {
+            throw new IllegalArgumentException("A range filter on " + rangeField
+                    + " cannot be combined with ordering by " + orderBy.fieldName());
+        }
+        Query.Direction direction = descending ? Query.Direction.DESCENDING : Query.Direction.ASCENDING;
+        query = query.orderBy(orderBy.fieldName(), direction);
+
+        return limit > 0 ? query.limit(limit) : query;
+    }
+
+    private static String checkSingleRangeField(String current, String field) {
+        if (current != null && !current.equals(field)) {
+            throw new IllegalArgumentException("Range filters on both " + current + " and " + field
+                    + " are not supported in one query");
+        }
+        return field;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.projectthree;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * InventoryRepository is the storage contract for one location's inventory
+ * Implemented over Firestore for the app, and over memory and SQLite so the
+ * screens' hot paths can be exercised and measured without Firebase.
+ * Items are keyed by name; pages are ordered by name. Every operation returns a future,
+ * which InventoryFutures can bound with a deadline, retry or join with others.
+ */
+public interface InventoryRepository {
+
+    /**
+     * Receives decoded inventory changes, one list per batch of changes
+     * The first call after listening starts reports every existing item as ADDED.
+     */
+    interface ItemChangeListener {
+        void onItemChanges(List<ItemChange> changes);
+
+        /**
+         * Called, on the same thread as the changes, if the listener fails
+         * Nothing more is delivered; listen again to start over from every existing item.
+         *
+         * @param error - Why the listener stopped
+         */
+        default void onError(Exception error) {}
+    }
+
+    /**
+     * A listener's registration; removing it stops deliveries, and may be called more than once
+     */
+    interface Subscription {
+        void remove();
+    }
+
+    /**
+     * Adds a new item or overwrites it if the item already exists
+     *
+     * @param item - The item to be added
+     * @return - A future that completes when the write commits
+     */
+    CompletableFuture<Void> addItem(Item item);
+
+    /**
+     * Adds or overwrites several items using as few batched writes as the backend allows
+     *
+     * @param items - The items to write
+     * @return - A future that completes when every item is written
+     */
+    CompletableFuture<Void> addItems(List<Item> items);
+
+    /**
+     * Sets an item's quantity and stamps it with today's date
+     *
+     * @param itemName - The name of the item to update
+     * @param newQuantity - The new quantity value to set
+     * @return - A future that completes when the write commits
+     */
+    CompletableFuture<Void> updateItemQuantity(String itemName, int newQuantity);
+
+    /**
+     * Atomically adds delta to an item's quantity
+     *
+     * @param itemName - The name of the item to adjust
+     * @param delta - Units to add; negative to remove
+     * @return - A future that completes when the adjustment commits
+     */
+    CompletableFuture<Void> adjustQuantity(String itemName, int delta);
+
+    /**
+     * Applies several quantity increments as batched writes
+     *
+     * @param deltas - Units to add, by item name
+     * @return - A future that completes when every adjustment commits
+     */
+    CompletableFuture<Void> adjustQuantities(Map<String, Integer> deltas);
+
+    /**
+     * Deletes an item by its name
+     *
+     * @param itemName - The name of the item to delete
+     * @return - A future that completes when the delete commits
+     */
+    CompletableFuture<Void> deleteItem(String itemName);
+
+    /**
+     * Loads one page of items in name order
+     *
+     * @param startAfter - The last item name of the previous page, or null for the first page
+     * @param pageSize - Maximum number of items to return
+     * @return - A future that completes with the page; fewer than pageSize items means the end
+     */
+    CompletableFuture<List<Item>> loadPage(String startAfter, int pageSize);
+
+    /**
+     * Starts delivering inventory changes to the listener
+     * Remove the returned subscription when the listener goes away, or tie it to a screen's
+     * lifecycle with SnapshotListenerRegistry.bind, so the listener does not outlive it.
+     *
+     * @param listener - Receives the changes
+     * @return - The listener's subscription
+     */
+    Subscription listenToItems(ItemChangeListener listener);
+
+    /**
+     * The changes listenToItems delivers, as a stream; nothing is listened to until it is subscribed
+     *
+     * @return - A stream of each batch of changes, on the thread listenToItems delivers them
+     */
+    default InventoryStream<List<ItemChange>> itemChanges() {
+        return InventoryStream.create(downstream -> listenToItems(downstream::accept));
+    }
+}
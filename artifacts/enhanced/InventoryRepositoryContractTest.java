@@ -0,0 +1,225 @@
+package com.example.projectthree;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conformance and throughput suite every InventoryRepository must pass
+ * Subclasses supply the repository under test, delivering changes on the writing thread.
+ */
+public abstract class InventoryRepositoryContractTest {
+
+    private static final long WAIT_SECONDS = 10;
+    private static final long DAY = 20_000;
+    private static final int THROUGHPUT_ITEMS = 10_000;
+
+    protected InventoryRepository repository;
+
+    /**
+     * @return - An empty repository whose callback executor runs listeners on the writing thread
+     */
+    protected abstract InventoryRepository createRepository();
+
+    /**
+     * Releases the repository after each test; nothing to release by default
+     */
+    protected void closeRepository() {}
+
+    @Before
+    public void setUp() {
+        repository = createRepository();
+    }
+
+    @After
+    public void tearDown() {
+        closeRepository();
+    }
+
+    private static Item item(String itemName, int quantity) {
+        return new Item(itemName, quantity, DAY, 0, "loc");
+    }
+
+    @Test
+    public void addItemOverwritesItemWithSameName() throws Exception {
+        await(repository.addItem(item("bolts", 3)));
+        await(repository.addItem(item("bolts", 7)));
+
+        List<Item> page = await(repository.loadPage(null, 10));
+        Assert.assertEquals(1, page.size());
+        Assert.assertEquals(7, page.get(0).getQuantity());
+    }
+
+    @Test
+    public void pagesFollowNameOrder() throws Exception {
+        List<Item> items = new ArrayList<>();
+        for (int i = 24; i >= 0; i--) {
+            items.add(item(String.format("item%02d", i), i));
+        }
+        await(repository.addItems(items));
+
+        List<String> names = new ArrayList<>();
+        String startAfter = null;
+        List<Integer> pageSizes = new ArrayList<>();
+        while (true) {
+            List<Item> page = await(repository.loadPage(startAfter, 10));
+            pageSizes.add(page.size());
+            for (Item item : page) {
+                names.add(item.getItemName());
+            }
+            if (page.size() < 10) break;
+            startAfter = page.get(page.size() - 1).getItemName();
+        }
+
+        Assert.assertEquals(Arrays.asList(10, 10, 5), pageSizes);
+        List<String> sorted = new ArrayList<>(names);
+        Collections.sort(sorted);
+        Assert.assertEquals(sorted, names);
+        Assert.assertEquals(25, names.size());
+    }
+
+    @Test
+    public void quantityUpdatesAndAdjustments() throws Exception {
+        await(repository.addItems(Arrays.asList(item("bolts", 10), item("nuts", 20))));
+
+        await(repository.updateItemQuantity("bolts", 4));
+        await(repository.adjustQuantity("nuts", -5));
+        Map<String, Integer> deltas = new HashMap<>();
+        deltas.put("bolts", 1);
+        deltas.put("nuts", 2);
+        await(repository.adjustQuantities(deltas));
+
+        Map<String, Integer> quantities = quantities();
+        Assert.assertEquals(5, (int) quantities.get("bolts"));
+        Assert.assertEquals(17, (int) quantities.get("nuts"));
+    }
+
+    @Test
+    public void changingMissingItemFails() throws Exception {
+        assertNoSuchItem(repository.updateItemQuantity("ghost", 1));
+        assertNoSuchItem(repository.adjustQuantity("ghost", 1));
+
+        await(repository.addItem(item("bolts", 1)));
+        Map<String, Integer> deltas = new HashMap<>();
+        deltas.put("bolts", 1);
+        deltas.put("ghost", 1);
+        assertNoSuchItem(repository.adjustQuantities(deltas));
+    }
+
+    @Test
+    public void deleteItemRemovesIt() throws Exception {
+        await(repository.addItems(Arrays.asList(item("bolts", 1), item("nuts", 2))));
+        await(repository.deleteItem("bolts"));
+        await(repository.deleteItem("ghost"));
+
+        Assert.assertEquals(Collections.singleton("nuts"), quantities().keySet());
+    }
+
+    @Test
+    public void listenerGetsExistingItemsThenEachChange() throws Exception {
+        await(repository.addItems(Arrays.asList(item("bolts", 1), item("nuts", 2))));
+        List<List<ItemChange>> batches = Collections.synchronizedList(new ArrayList<>());
+        InventoryRepository.Subscription subscription = repository.listenToItems(batches::add);
+
+        await(repository.addItem(item("washers", 3)));
+        await(repository.updateItemQuantity("bolts", 9));
+        await(repository.deleteItem("nuts"));
+
+        Assert.assertEquals(4, batches.size());
+        Assert.assertEquals(2, batches.get(0).size());
+        for (ItemChange change : batches.get(0)) {
+            Assert.assertEquals(ItemChange.Type.ADDED, change.getType());
+        }
+        assertChange(batches.get(1), ItemChange.Type.ADDED, "washers");
+        assertChange(batches.get(2), ItemChange.Type.MODIFIED, "bolts");
+        Assert.assertEquals(9, batches.get(2).get(0).getItem().getQuantity());
+        assertChange(batches.get(3), ItemChange.Type.REMOVED, "nuts");
+
+        subscription.remove();
+        subscription.remove();
+        await(repository.addItem(item("rivets", 4)));
+        Assert.assertEquals(4, batches.size());
+    }
+
+    @Test
+    public void throughput() throws Exception {
+        List<Item> items = new ArrayList<>(THROUGHPUT_ITEMS);
+        for (int i = 0; i < THROUGHPUT_ITEMS; i++) {
+            items.add(item("item" + i, i));
+        }
+        int[] delivered = {0};
+        repository.listenToItems(changes -> {
+            synchronized (delivered) {
+                delivered[0] += changes.size();
+            }
+        });
+
+        long start = System.nanoTime();
+        await(repository.addItems(items));
+        long batchNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<CompletableFuture<Void>> updates = new ArrayList<>(THROUGHPUT_ITEMS);
+        for (int i = 0; i < THROUGHPUT_ITEMS; i++) {
+            updates.add(repository.adjustQuantity("item" + i, 1));
+        }
+        await(CompletableFuture.allOf(updates.toArray(new CompletableFuture[0])));
+        long singleNanos = System.nanoTime() - start;
+
+        System.out.println(getClass().getSimpleName() + ": " + THROUGHPUT_ITEMS + " items written in one batch in "
+                + batchNanos / 1_000_000 + " ms, then adjusted one at a time at "
+                + THROUGHPUT_ITEMS * 1_000_000_000L / Math.max(singleNanos, 1) + " writes/s");
+        Map<String, Integer> quantities = quantities();
+        Assert.assertEquals(THROUGHPUT_ITEMS, quantities.size());
+        for (int i = 0; i < THROUGHPUT_ITEMS; i++) {
+            Assert.assertEquals(i + 1, (int) quantities.get("item" + i));
+        }
+        synchronized (delivered) {
+            Assert.assertEquals(THROUGHPUT_ITEMS * 2, delivered[0]);
+        }
+    }
+
+    private Map<String, Integer> quantities() throws Exception {
+        Map<String, Integer> quantities = new HashMap<>();
+        String startAfter = null;
+        while (true) {
+            List<Item> page = await(repository.loadPage(startAfter, 500));
+            for (Item item : page) {
+                quantities.put(item.getItemName(), item.getQuantity());
+            }
+            if (page.size() < 500) return quantities;
+            startAfter = page.get(page.size() - 1).getItemName();
+        }
+    }
+
+    private static void assertChange(List<ItemChange> batch, ItemChange.Type type, String itemName) {
+        Assert.assertEquals(1, batch.size());
+        Assert.assertEquals(type, batch.get(0).getType());
+        Assert.assertEquals(itemName, batch.get(0).getItemName());
+    }
+
+    private static void assertNoSuchItem(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(WAIT_SECONDS, TimeUnit.SECONDS);
+            Assert.fail("Expected the write to fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof NoSuchElementException);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+}
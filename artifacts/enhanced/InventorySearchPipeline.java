@@ -0,0 +1,139 @@
+package com.example.projectthree;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * InventorySearchPipeline runs name searches off the main thread
+ * Keystrokes are debounced, each new query supersedes any query still queued or running,
+ * and only the result of the latest query is posted back to the main thread.
+ * Searches run against the pipeline's own copy of the store, kept on the search thread and
+ * fed the same changes in order, so a long search never holds up the main thread's writes.
+ */
+public class InventorySearchPipeline {
+
+    /**
+     * Receives search results on the main thread, already in the requested sort order
+     */
+    public interface ResultListener {
+        void onResults(String query, List<Item> results);
+    }
+
+    private static final long DEBOUNCE_MS = 150;
+
+    private final InventoryStore searchStore = new InventoryStore(); // Only touched on the executor
+    private final ResultListener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private Runnable pendingDispatch;
+    private Future<?> runningSearch;
+
+    /**
+     * Copies the store's current items to the search thread
+     * Pass every later batch of the store's changes to onItemChanges.
+     * Must be called on the main thread.
+     *
+     * @param store - The store being searched
+     * @param listener - Receives the results of the latest query
+     */
+    public InventorySearchPipeline(InventoryStore store, ResultListener listener) {
+        this.listener = listener;
+        List<Item> items = new ArrayList<>(store.getItems(SortCriterion.NAME, false));
+        executor.execute(() -> {
+            for (Item item : items) {
+                searchStore.put(item);
+            }
+        });
+    }
+
+    /**
+     * Applies a batch of changes, already applied to the store, to the search thread's copy
+     * Searches submitted afterwards see the batch. Must be called on the main thread, for every batch, in order.
+     *
+     * @param changes - The batch of changes
+     */
+    public void onItemChanges(List<ItemChange> changes) {
+        executor.execute(() -> {
+            for (ItemChange change : changes) {
+                if (change.getType() == ItemChange.Type.REMOVED) {
+                    searchStore.remove(change.getItemName());
+                } else {
+                    searchStore.put(change.getItem());
+                }
+            }
+        });
+    }
+
+    /**
+     * Schedules a search once typing pauses for DEBOUNCE_MS
+     * Must be called on the main thread.
+     *
+     * @param query - Search text entered by user
+     * @param criterion - The sort criterion the results should follow
+     * @param descending - Whether results should be in descending order
+     */
+    public void submit(String query, SortCriterion criterion, boolean descending) {
+        cancel();
+        int searchGeneration = generation.get();
+        pendingDispatch = () -> dispatch(searchGeneration, query, criterion, descending);
+        mainHandler.postDelayed(pendingDispatch, DEBOUNCE_MS);
+    }
+
+    /**
+     * Runs a search without waiting, e.g. after a sort change or a new snapshot
+     * Must be called on the main thread.
+     */
+    public void submitNow(String query, SortCriterion criterion, boolean descending) {
+        cancel();
+        dispatch(generation.get(), query, criterion, descending);
+    }
+
+    /**
+     * Drops any queued or running search so its result is never delivered
+     * Must be called on the main thread.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        if (pendingDispatch != null) {
+            mainHandler.removeCallbacks(pendingDispatch);
+            pendingDispatch = null;
+        }
+        if (runningSearch != null) {
+            runningSearch.cancel(false);
+            runningSearch = null;
+        }
+    }
+
+    /**
+     * Cancels outstanding work and stops the background thread
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void dispatch(int searchGeneration, String query, SortCriterion criterion, boolean descending) {
+        pendingDispatch = null;
+        runningSearch = executor.submit(() -> {
+            if (searchGeneration != generation.get()) return;
+
+            long start = InventoryMetrics.start();
+            List<Item> results = searchStore.search(query, criterion, descending);
+            InventoryMetrics.stop(InventoryMetrics.Histogram.LIST_SEARCH, start);
+            mainHandler.post(() -> {
+                if (searchGeneration == generation.get()) {
+                    listener.onResults(query, results);
+                }
+            });
+        });
+    }
+}
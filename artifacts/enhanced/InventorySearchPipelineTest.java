@@ -0,0 +1,141 @@
+package com.example.projectthree;
+
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.LooperMode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Robolectric tests for InventorySearchPipeline's debouncing, cancellation and result order,
+ * and a comparison of main-thread time per keystroke with filtering on the main thread
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class InventorySearchPipelineTest {
+
+    private static final int ITEM_COUNT = 10_000;
+    private static final long DEBOUNCE_MS = 150;
+    private static final long WAIT_MS = 5_000;
+
+    private final List<String> queries = new ArrayList<>();
+    private final List<List<Item>> results = new ArrayList<>();
+    private InventoryStore store;
+    private InventorySearchPipeline pipeline;
+
+    @Before
+    public void setUp() {
+        store = new InventoryStore();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            store.put(new Item((i % 2 == 0 ? "Bolt " : "Nut ") + i, i % 97, 20_000 + i % 365, 0, "loc"));
+        }
+        pipeline = new InventorySearchPipeline(store, (query, items) -> {
+            queries.add(query);
+            results.add(items);
+        });
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    public void onlyLatestQueryIsDelivered() {
+        pipeline.submit("b", SortCriterion.NAME, false);
+        pipeline.submit("bo", SortCriterion.NAME, false);
+        pipeline.submit("bolt 1", SortCriterion.NAME, false);
+        awaitResults(1);
+
+        Assert.assertEquals(Collections.singletonList("bolt 1"), queries);
+        for (Item item : results.get(0)) {
+            Assert.assertTrue(item.getItemName(), item.getItemName().toLowerCase(Locale.ROOT).contains("bolt 1"));
+        }
+    }
+
+    @Test
+    public void cancelledQueryIsNeverDelivered() {
+        pipeline.submit("nut", SortCriterion.NAME, false);
+        pipeline.cancel();
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(DEBOUNCE_MS * 2));
+
+        pipeline.submitNow("bolt", SortCriterion.NAME, false);
+        awaitResults(1);
+        Assert.assertEquals(Collections.singletonList("bolt"), queries);
+    }
+
+    @Test
+    public void resultsFollowSelectedSortOrder() {
+        pipeline.submitNow("nut", SortCriterion.QUANTITY, true);
+        awaitResults(1);
+
+        List<Item> expected = new ArrayList<>(results.get(0));
+        Collections.sort(expected, SortCriterion.QUANTITY.comparator().reversed());
+        Assert.assertEquals(ITEM_COUNT / 2, results.get(0).size());
+        Assert.assertEquals(expected, results.get(0));
+    }
+
+    @Test
+    public void searchesSeeChangesPassedOn() {
+        Item added = new Item("Washer 1", 4, 20_000, 0, "loc");
+        store.put(added);
+        pipeline.onItemChanges(Collections.singletonList(new ItemChange(ItemChange.Type.ADDED, "Washer 1", added)));
+        pipeline.submitNow("washer", SortCriterion.NAME, false);
+        awaitResults(1);
+
+        Assert.assertEquals(Collections.singletonList(added), results.get(0));
+    }
+
+    @Test
+    public void mainThreadTimePerKeystroke() {
+        String query = "bolt 12";
+
+        long start = System.nanoTime();
+        for (int end = 1; end <= query.length(); end++) {
+            pipeline.submit(query.substring(0, end), SortCriterion.NAME, false);
+        }
+        long pipelineNanos = (System.nanoTime() - start) / query.length();
+        awaitResults(1);
+
+        // The old path filtered and sorted the whole inventory on the main thread per keystroke
+        start = System.nanoTime();
+        for (int end = 1; end <= query.length(); end++) {
+            String typed = query.substring(0, end).toLowerCase(Locale.ROOT);
+            List<Item> filtered = new ArrayList<>();
+            for (Item item : store.getItems(SortCriterion.NAME, false)) {
+                if (item.getItemName().toLowerCase(Locale.ROOT).contains(typed)) filtered.add(item);
+            }
+            Collections.sort(filtered, Comparator.comparing(Item::getNaturalKey));
+        }
+        long mainThreadNanos = (System.nanoTime() - start) / query.length();
+
+        System.out.println("Main-thread time per keystroke: pipeline " + pipelineNanos / 1000
+                + " us, filtering on the main thread " + mainThreadNanos / 1000 + " us");
+        Assert.assertTrue(pipelineNanos < mainThreadNanos);
+    }
+
+    /**
+     * Runs the debounce and waits for the search thread to post the expected number of results
+     */
+    private void awaitResults(int count) {
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(DEBOUNCE_MS));
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (results.size() < count && System.currentTimeMillis() < deadline) {
+            Shadows.shadowOf(Looper.getMainLooper()).idle();
+            Thread.yield();
+        }
+        Assert.assertEquals(count, results.size());
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.projectthree;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * InventoryStore keeps the decoded inventory of a location in memory.
+ * Items are indexed by name, by one sorted index per SortCriterion,
+ * and by a trigram search index over their names.
+ * A Firestore change only touches the positions it affects in each index,
+ * and switching sort criterion or direction walks an existing index
+ * instead of re-sorting the whole inventory.
+ *
+ * The store is not thread-safe; each instance belongs to one thread. LocationInventory's store
+ * lives on the main thread, and InventorySearchPipeline keeps its own copy on its search thread.
+ * The search index is only built once a store is first searched.
+ */
+public class InventoryStore {
+
+    private final Map<String, Item> itemMap = new HashMap<>();
+    private final Map<SortCriterion, SortedIndex> indexes = new EnumMap<>(SortCriterion.class);
+    private NameSearchIndex searchIndex; // Built on the first search
+
+    public InventoryStore() {
+        for (SortCriterion criterion : SortCriterion.values()) {
+            indexes.put(criterion, new SortedIndex(criterion.comparator()));
+        }
+    }
+
+    /**
+     * Adds a new item or replaces the existing item with the same name.
+     * The item is placed at its sorted position in every index using a binary search.
+     * Its natural sort key is built on entry, once, and reused by every later sort.
+     * The time spent keeping the sorted indexes in order is recorded as LIST_SORT.
+     *
+     * @param item - The decoded item from an ADDED or MODIFIED change
+     */
+    public void put(Item item) {
+        item.getNaturalKey();
+
+        Item previous = itemMap.put(item.getItemName(), item);
+        long start = InventoryMetrics.start();
+        for (SortedIndex index : indexes.values()) {
+            index.replace(previous, item);
+        }
+        InventoryMetrics.stop(InventoryMetrics.Histogram.LIST_SORT, start);
+        if (previous == null && searchIndex != null) searchIndex.add(item.getItemName());
+    }
+
+    /**
+     * Removes an item by name, if it is present
+     *
+     * @param itemName - The document ID of a REMOVED document change
+     */
+    public void remove(String itemName) {
+        Item previous = itemMap.remove(itemName);
+        if (previous == null) return;
+
+        long start = InventoryMetrics.start();
+        for (SortedIndex index : indexes.values()) {
+            index.remove(previous);
+        }
+        InventoryMetrics.stop(InventoryMetrics.Histogram.LIST_SORT, start);
+        if (searchIndex != null) searchIndex.remove(itemName);
+    }
+
+    public Item get(String itemName) {
+        return itemMap.get(itemName);
+    }
+
+    public boolean contains(String itemName) {
+        return itemMap.containsKey(itemName);
+    }
+
+    public int size() {
+        return itemMap.size();
+    }
+
+    /**
+     * Returns a read-only view of the items in the requested order.
+     * No sorting happens here; descending order walks the same index backwards.
+     *
+     * @param criterion - The field to order by
+     * @param descending - Whether to walk the index from the end
+     * @return - A live view that reflects later changes to the store
+     */
+    public List<Item> getItems(SortCriterion criterion, boolean descending) {
+        List<Item> items = indexes.get(criterion).items;
+        if (!descending) return Collections.unmodifiableList(items);
+
+        return new AbstractList<Item>() {
+            @Override
+            public Item get(int index) {
+                return items.get(items.size() - 1 - index);
+            }
+
+            @Override
+            public int size() {
+                return items.size();
+            }
+        };
+    }
+
+    /**
+     * Returns the items whose name contains the query, ignoring case, in the requested order.
+     * Small result sets are sorted directly; large ones are collected by walking the sort index.
+     * The first search builds the name index over the items already stored.
+     *
+     * @param query - Search text entered by user
+     * @param criterion - The field to order by
+     * @param descending - Whether the results should be in descending order
+     * @return - A new list of matching items
+     */
+    public List<Item> search(String query, SortCriterion criterion, boolean descending) {
+        if (searchIndex == null) {
+            searchIndex = new NameSearchIndex();
+            for (String itemName : itemMap.keySet()) {
+                searchIndex.add(itemName);
+            }
+        }
+        Set<String> matches = searchIndex.search(query);
+        List<Item> results = new ArrayList<>(matches.size());
+
+        // k log k sorting beats an n-item walk only while the match count is well below n
+        int log2 = 32 - Integer.numberOfLeadingZeros(Math.max(matches.size(), 1));
+        if ((long) matches.size() * log2 < size()) {
+            for (String itemName : matches) {
+                results.add(itemMap.get(itemName));
+            }
+            Comparator<Item> comparator = criterion.comparator();
+            Collections.sort(results, descending ? comparator.reversed() : comparator);
+        } else {
+            for (Item item : getItems(criterion, descending)) {
+                if (matches.contains(item.getItemName())) results.add(item);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * An array of items kept sorted by one comparator, updated in place
+     */
+    private static class SortedIndex {
+        private final List<Item> items = new ArrayList<>();
+        private final Comparator<Item> comparator;
+
+        SortedIndex(Comparator<Item> comparator) {
+            this.comparator = comparator;
+        }
+
+        void replace(Item previous, Item item) {
+            if (previous != null) {
+                int oldPosition = Collections.binarySearch(items, previous, comparator);
+                int newPosition = insertionPoint(item);
+
+                // Same slot, either side of the old entry, means the order is unchanged
+                if (newPosition == oldPosition || newPosition == oldPosition + 1) {
+                    items.set(oldPosition, item);
+                    return;
+                }
+                items.remove(oldPosition);
+            }
+            items.add(insertionPoint(item), item);
+        }
+
+        void remove(Item previous) {
+            items.remove(Collections.binarySearch(items, previous, comparator));
+        }
+
+        private int insertionPoint(Item item) {
+            int index = Collections.binarySearch(items, item, comparator);
+            return index >= 0 ? index : -(index + 1);
+        }
+    }
+}
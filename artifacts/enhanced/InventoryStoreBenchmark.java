@@ -0,0 +1,88 @@
+package com.example.projectthree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for applying one snapshot's changes to InventoryStore
+ * applyChanges should stay flat as inventorySize grows and rise with changeSize;
+ * resortAll is the old path, which re-sorted the whole inventory on every snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InventoryStoreBenchmark {
+
+    private static final long DAY = 20_000;
+
+    @Param({"1000", "20000", "100000"})
+    public int inventorySize;
+
+    @Param({"1", "10", "100"})
+    public int changeSize;
+
+    private InventoryStore store;
+    private List<Item> items;
+    private List<List<ItemChange>> snapshots;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        store = new InventoryStore();
+        items = new ArrayList<>(inventorySize);
+        for (int i = 0; i < inventorySize; i++) {
+            Item item = new Item("bin" + random.nextInt(100) + "-part" + i, random.nextInt(500),
+                    DAY + random.nextInt(365), 0, "loc");
+            items.add(item);
+            store.put(item);
+        }
+
+        // Quantity changes that move items within the quantity index, as a stock count would
+        snapshots = new ArrayList<>();
+        for (int s = 0; s < 64; s++) {
+            List<ItemChange> changes = new ArrayList<>(changeSize);
+            for (int c = 0; c < changeSize; c++) {
+                Item item = items.get(random.nextInt(inventorySize));
+                Item changed = new Item(item.getItemName(), random.nextInt(500), item.getEpochDay(), 0, "loc");
+                changes.add(new ItemChange(ItemChange.Type.MODIFIED, item.getItemName(), changed));
+            }
+            snapshots.add(changes);
+        }
+    }
+
+    @Benchmark
+    public void applyChanges(Blackhole blackhole) {
+        List<ItemChange> changes = snapshots.get(next++ & 63);
+        for (ItemChange change : changes) {
+            store.put(change.getItem());
+        }
+        blackhole.consume(store.getItems(SortCriterion.QUANTITY, false).get(0));
+    }
+
+    @Benchmark
+    public void resortAll(Blackhole blackhole) {
+        List<Item> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, SortCriterion.QUANTITY.comparator());
+        blackhole.consume(sorted.get(0));
+    }
+}
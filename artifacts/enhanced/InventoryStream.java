@@ -0,0 +1,160 @@
+package com.example.projectthree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * InventoryStream is a push stream of inventory updates, with operators that bound the work
+ * a slow consumer is given when updates arrive in bursts
+ *
+ * - conflate hands the consumer only the latest value once it is free, dropping older ones;
+ *   use it for state, where only the freshest value matters
+ * - window collects the values of a time window into one list; use it for deltas,
+ *   which must all be applied but are cheaper to apply together
+ * - observeOn moves delivery to another executor without dropping anything
+ * - map transforms each value on whichever thread delivers it
+ *
+ * Nothing runs until subscribe is called; every subscriber gets its own chain.
+ * Values must not be null.
+ */
+public final class InventoryStream<T> {
+
+    /**
+     * Starts delivering values to a subscriber
+     */
+    public interface OnSubscribe<T> {
+        InventoryRepository.Subscription subscribe(Consumer<? super T> downstream);
+    }
+
+    // Closes windows; their lists are handed downstream on this thread
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "InventoryStream-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final OnSubscribe<T> onSubscribe;
+
+    private InventoryStream(OnSubscribe<T> onSubscribe) {
+        this.onSubscribe = onSubscribe;
+    }
+
+    public static <T> InventoryStream<T> create(OnSubscribe<T> onSubscribe) {
+        return new InventoryStream<>(onSubscribe);
+    }
+
+    /**
+     * Starts the stream
+     *
+     * @param subscriber - Receives every value that reaches the end of the chain
+     * @return - The subscription; removing it stops the source and drops undelivered values
+     */
+    public InventoryRepository.Subscription subscribe(Consumer<? super T> subscriber) {
+        return onSubscribe.subscribe(subscriber);
+    }
+
+    /**
+     * @param mapper - Applied to each value on the thread that delivers it
+     */
+    public <R> InventoryStream<R> map(Function<? super T, ? extends R> mapper) {
+        return create(downstream -> subscribe(value -> downstream.accept(mapper.apply(value))));
+    }
+
+    /**
+     * Delivers every value on the executor, in order
+     * Nothing is dropped, so a consumer slower than its source builds a queue; window or conflate first.
+     *
+     * @param executor - Runs deliveries; must run tasks one at a time, in order
+     */
+    public InventoryStream<T> observeOn(Executor executor) {
+        return create(downstream -> {
+            AtomicBoolean removed = new AtomicBoolean();
+            InventoryRepository.Subscription upstream = subscribe(value -> executor.execute(() -> {
+                if (!removed.get()) downstream.accept(value);
+            }));
+            return () -> {
+                removed.set(true);
+                upstream.remove();
+            };
+        });
+    }
+
+    /**
+     * Delivers only the latest value on the executor
+     * A value that arrives while a delivery is waiting replaces the one it would have delivered,
+     * so however fast the source emits, the consumer runs at most once per turn of the executor
+     * and always sees the freshest value.
+     *
+     * @param executor - Runs deliveries; must run tasks one at a time
+     */
+    public InventoryStream<T> conflate(Executor executor) {
+        return create(downstream -> {
+            AtomicReference<T> latest = new AtomicReference<>();
+            AtomicBoolean scheduled = new AtomicBoolean();
+            AtomicBoolean removed = new AtomicBoolean();
+            Runnable drain = () -> {
+                scheduled.set(false);
+                T value = latest.getAndSet(null);
+                if (value != null && !removed.get()) downstream.accept(value);
+            };
+
+            InventoryRepository.Subscription upstream = subscribe(value -> {
+                latest.set(value);
+                if (scheduled.compareAndSet(false, true)) executor.execute(drain);
+            });
+            return () -> {
+                removed.set(true);
+                upstream.remove();
+            };
+        });
+    }
+
+    /**
+     * Collects values into a list per time window
+     * A window opens with the first value after the previous one closed and closes windowMs later,
+     * so a quiet stream adds no delay beyond one window, and a busy one emits one list per window.
+     * Lists are delivered on a shared timer thread; follow with observeOn or conflate.
+     *
+     * @param windowMs - How long a window stays open
+     */
+    public InventoryStream<List<T>> window(long windowMs) {
+        return create(downstream -> {
+            Window<T> open = new Window<>();
+            AtomicBoolean removed = new AtomicBoolean();
+            Runnable close = () -> {
+                List<T> values;
+                synchronized (open) {
+                    values = open.values;
+                    open.values = null;
+                }
+                if (values != null && !removed.get()) downstream.accept(values);
+            };
+
+            InventoryRepository.Subscription upstream = subscribe(value -> {
+                synchronized (open) {
+                    if (open.values == null) {
+                        open.values = new ArrayList<>();
+                        TIMER.schedule(close, windowMs, TimeUnit.MILLISECONDS);
+                    }
+                    open.values.add(value);
+                }
+            });
+            return () -> {
+                removed.set(true);
+                upstream.remove();
+            };
+        });
+    }
+
+    private static class Window<T> {
+        List<T> values; // Guarded by the window itself; null while no window is open
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.projectthree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JVM stress tests for InventoryStream: a source fires 1000 updates per second at a subscriber
+ * that is slower than the source, and the work it is given must stay bounded
+ */
+public class InventoryStreamTest {
+
+    private static final int UPDATES = 2_000; // Two seconds at one update per millisecond
+    private static final long CONSUMER_COST_MS = 5;
+    private static final long WINDOW_MS = 50;
+    private static final long WAIT_SECONDS = 10;
+
+    @Test
+    public void conflateHandsSlowConsumerOnlyFreshestValues() throws Exception {
+        ExecutorService consumerThread = Executors.newSingleThreadExecutor();
+        Source source = new Source();
+        List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+
+        long start = System.nanoTime();
+        InventoryRepository.Subscription subscription = source.stream()
+                .conflate(consumerThread)
+                .subscribe(value -> {
+                    consumed.add(value);
+                    sleep(CONSUMER_COST_MS);
+                });
+        source.awaitDone();
+        consumerThread.submit(() -> {}).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        consumerThread.submit(() -> {}).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        subscription.remove();
+        consumerThread.shutdown();
+
+        System.out.println("conflate: " + UPDATES + " updates, " + consumed.size() + " deliveries in " + elapsedMs + " ms");
+        // The consumer can take one value per CONSUMER_COST_MS, however fast the source is
+        Assert.assertTrue(consumed.size() <= elapsedMs / CONSUMER_COST_MS + 1);
+        Assert.assertTrue(consumed.size() < UPDATES / 2);
+        Assert.assertEquals(UPDATES - 1, (int) consumed.get(consumed.size() - 1));
+        for (int i = 1; i < consumed.size(); i++) {
+            Assert.assertTrue(consumed.get(i) > consumed.get(i - 1));
+        }
+    }
+
+    @Test
+    public void windowBatchesEveryUpdateIntoFewDeliveries() throws Exception {
+        ExecutorService consumerThread = Executors.newSingleThreadExecutor();
+        Source source = new Source();
+        List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger deliveries = new AtomicInteger();
+
+        long start = System.nanoTime();
+        InventoryRepository.Subscription subscription = source.stream()
+                .window(WINDOW_MS)
+                .observeOn(consumerThread)
+                .subscribe(values -> {
+                    deliveries.incrementAndGet();
+                    consumed.addAll(values);
+                });
+        source.awaitDone();
+        Thread.sleep(WINDOW_MS * 2);
+        consumerThread.submit(() -> {}).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        subscription.remove();
+        consumerThread.shutdown();
+
+        System.out.println("window: " + UPDATES + " updates, " + deliveries.get() + " deliveries in " + elapsedMs + " ms");
+        Assert.assertTrue(deliveries.get() <= elapsedMs / WINDOW_MS + 1);
+        Assert.assertEquals(UPDATES, consumed.size());
+        for (int i = 0; i < UPDATES; i++) {
+            Assert.assertEquals(i, (int) consumed.get(i));
+        }
+    }
+
+    @Test
+    public void removedSubscriptionStopsSourceAndDeliveries() throws Exception {
+        ExecutorService consumerThread = Executors.newSingleThreadExecutor();
+        Source source = new Source();
+        AtomicInteger consumed = new AtomicInteger();
+
+        InventoryRepository.Subscription subscription = source.stream()
+                .conflate(consumerThread)
+                .subscribe(value -> consumed.incrementAndGet());
+        Thread.sleep(100);
+        subscription.remove();
+        consumerThread.submit(() -> {}).get(WAIT_SECONDS, TimeUnit.SECONDS);
+        int afterRemove = consumed.get();
+        Thread.sleep(100);
+        consumerThread.shutdown();
+
+        Assert.assertTrue(source.cancelled);
+        Assert.assertEquals(afterRemove, consumed.get());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Emits 0 to UPDATES - 1 from its own thread, one value per millisecond
+     */
+    private static class Source {
+        private final ScheduledExecutorService producer = Executors.newSingleThreadScheduledExecutor();
+        private final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean cancelled;
+
+        InventoryStream<Integer> stream() {
+            return InventoryStream.create(downstream -> {
+                AtomicInteger next = new AtomicInteger();
+                ScheduledFuture<?> emitting = producer.scheduleAtFixedRate(() -> {
+                    int value = next.getAndIncrement();
+                    if (value < UPDATES) downstream.accept(value);
+                    if (value == UPDATES - 1) done.countDown();
+                }, 0, 1, TimeUnit.MILLISECONDS);
+                return () -> {
+                    cancelled = true;
+                    emitting.cancel(false);
+                    producer.shutdown();
+                };
+            });
+        }
+
+        void awaitDone() throws InterruptedException {
+            Assert.assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package com.example.projectthree;
 
+import com.google.firebase.firestore.Exclude;
+
+import java.util.Locale;
+
 public class Item { // Item class for storing values of Table items.
     private String itemName;
     private int quantity;
     private String date;
+    private long epochDay; // Days since 1970-01-01, used for sorting and range filters
     private int threshold;
     private String locationId;
+    private int shardCount; // 0 unless the quantity is spread over a 'shards' subcollection
+    private NaturalSortKey naturalKey; // Derived from itemName, never stored in Firestore
 
     public Item() {
         // Required for Firestore deserialization
     }
 
-    public Item(String itemName, int quantity, String date, int threshold, String locationId) {
+    public Item(String itemName, int quantity, long epochDay, int threshold, String locationId) {
+        this(itemName, quantity, InventoryDates.format(epochDay), epochDay, threshold, locationId);
+    }
+
+    public Item(String itemName, int quantity, String date, long epochDay, int threshold, String locationId) {
         this.itemName = itemName;
         this.quantity = quantity;
         this.date = date;
+        this.epochDay = epochDay;
         this.threshold = threshold;
         this.locationId = locationId;
     }
@@ -23,6 +35,14 @@ public class Item { // Item class for storing values of Table items.
         return itemName;
     }
 
+    /**
+     * Lowercased copy of the name, stored so Firestore can order by it
+     * and answer prefix searches with a range query
+     */
+    public String getNameLower() {
+        return itemName.toLowerCase(Locale.ROOT);
+    }
+
     public int getQuantity() {
         return quantity;
     }
@@ -31,6 +51,33 @@ public class Item { // Item class for storing values of Table items.
         return date;
     }
 
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public void setEpochDay(long epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    /**
+     * Returns the natural sort key for this item's name, building it on first use
+     * so every later sort reuses the same key
+     */
+    @Exclude
+    public NaturalSortKey getNaturalKey() {
+        if (naturalKey == null) naturalKey = new NaturalSortKey(itemName);
+        return naturalKey;
+    }
+
+    /**
+     * Threshold carried over from the original SQLite schema; thresholds now live in each
+     * user's 'notifications' collection, so it is never written back to Firestore
+     */
+    @Exclude
+    int getThreshold() {
+        return threshold;
+    }
+
     public String getLocationId() {
         return locationId;
     }
@@ -38,4 +85,37 @@ public class Item { // Item class for storing values of Table items.
     public void setLocationId(String locationId) {
         this.locationId = locationId;
     }
+
+    /**
+     * Never written from an Item; only promoteToSharded sets it, so writing a whole item
+     * cannot demote a sharded one
+     */
+    @Exclude
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Returns a copy of this item with a different quantity, e.g. the summed shards of a sharded item
+     */
+    public Item withQuantity(int quantity) {
+        Item copy = new Item(itemName, quantity, date, epochDay, threshold, locationId);
+        copy.shardCount = shardCount;
+        copy.naturalKey = naturalKey;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this item with a new quantity, last modified on the given day
+     */
+    public Item withQuantity(int quantity, long epochDay) {
+        Item copy = new Item(itemName, quantity, epochDay, threshold, locationId);
+        copy.shardCount = shardCount;
+        copy.naturalKey = naturalKey;
+        return copy;
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.projectthree;
+
+/**
+ * A single decoded change to the inventory of a location
+ * Mirrors Firestore's DocumentChange without tying consumers to Firestore types.
+ */
+public class ItemChange {
+
+    public enum Type { ADDED, MODIFIED, REMOVED }
+
+    private final Type type;
+    private final String itemName;
+    private final Item item;
+
+    /**
+     * @param type - What happened to the item
+     * @param itemName - The item's name, which is also its document ID
+     * @param item - The decoded item, or null for REMOVED changes
+     */
+    public ItemChange(Type type, String itemName, Item item) {
+        this.type = type;
+        this.itemName = itemName;
+        this.item = item;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.projectthree;
+
+import java.util.Map;
+
+/**
+ * ItemCodec builds Items straight from a document's field map
+ * Replaces Firestore's reflection-based toObject(Item.class), and is safe to call
+ * off the main thread. Derived values such as the natural sort key and a missing
+ * epochDay are computed here too, so the main thread only inserts finished items.
+ */
+public final class ItemCodec {
+
+    private ItemCodec() {}
+
+    /**
+     * @param documentId - The document ID, used as the item name if the field is missing
+     * @param data - The document's fields
+     * @param locationId - The location whose inventory collection holds the document
+     * @return - The decoded item
+     */
+    public static Item decode(String documentId, Map<String, Object> data, String locationId) {
+        String itemName = stringField(data, "itemName");
+        if (itemName == null) itemName = documentId;
+
+        String date = stringField(data, "date");
+        Object epochDayValue = data.get("epochDay");
+        long epochDay = epochDayValue instanceof Number
+                ? ((Number) epochDayValue).longValue()
+                : InventoryDates.parseEpochDay(date);
+
+        Item item = new Item(itemName, intField(data, "quantity"), date, epochDay,
+                intField(data, "threshold"), locationId);
+        item.setShardCount(intField(data, "shardCount"));
+        item.getNaturalKey();
+        return item;
+    }
+
+    private static String stringField(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static int intField(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.projectthree;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LocationInventory is the in-memory inventory of one location, shared by every screen in the process
+ *
+ * It keeps one listener on the location's repository and applies each change once, to an indexed
+ * InventoryStore and to the low stock alert engine, before passing it on to the screens observing it.
+ * If that listener fails, it listens again after a backoff.
+ * A screen opened later reads the store instead of querying again. Like a ViewModel, it lives while
+ * any screen observes it, survives configuration changes, and is cleared a grace period after the
+ * last observer leaves. The repository is kept for the whole process, so queued writes keep
+ * draining after the screens close.
+ * Every method must be called on the main thread.
+ */
+public class LocationInventory {
+
+    private static final String TAG = "LocationInventory";
+
+    // Serve inventory from the local SQLite mirror; false reads straight from Firestore, for comparison
+    static final boolean USE_LOCAL_MIRROR = true;
+
+    // Units above threshold an item must be restocked by before it can alert again
+    private static final int LOW_STOCK_HYSTERESIS = 2;
+
+    // Wait before listening again after the item listener fails; doubles per failure up to the max
+    private static final long RELISTEN_BACKOFF_MS = 1_000;
+    private static final long RELISTEN_MAX_BACKOFF_MS = 60_000;
+
+    private static final Map<String, LocationInventory> live = new HashMap<>();
+    private static final Map<String, InventoryRepository> repositories = new HashMap<>();
+    private static final Map<String, FirestoreInventoryRepository> firestoreRepositories = new HashMap<>();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final String locationId;
+    private final Context appContext;
+    private final InventoryRepository repository;
+    private final InventoryStore store = new InventoryStore();
+    private final LowStockAlertEngine alertEngine;
+    private final AlertSettingsCache alertSettings;
+    private final Runnable listen = this::listen;
+    private InventoryRepository.Subscription itemSubscription;
+    private int listenFailures;
+    private boolean resyncing; // The next batch is a full listing that replaces the store
+    private final List<InventoryRepository.ItemChangeListener> itemObservers = new ArrayList<>();
+    private final List<AlertSettingsCache.ThresholdListener> thresholdObservers = new ArrayList<>();
+    private final Runnable clearIfUnused = this::clearIfUnused;
+    private boolean cleared;
+
+    /**
+     * Returns the location's inventory, starting to load it if no screen holds it
+     * Observe it right away; an inventory nobody observes is cleared after the grace period.
+     *
+     * @param context - Any context; only the application context is kept
+     * @param locationId - The location to load
+     */
+    public static LocationInventory get(Context context, String locationId) {
+        LocationInventory inventory = live.get(locationId);
+        if (inventory == null) {
+            inventory = new LocationInventory(context.getApplicationContext(), locationId);
+            live.put(locationId, inventory);
+            inventory.scheduleClearIfUnused();
+        }
+        return inventory;
+    }
+
+    /**
+     * @return - The location's inventory if a screen already loaded it, otherwise null
+     */
+    public static LocationInventory getIfLoaded(String locationId) {
+        return live.get(locationId);
+    }
+
+    /**
+     * Clears every loaded inventory right away and stops its alerts (e.g., on logout)
+     */
+    public static void releaseAll() {
+        for (LocationInventory inventory : new ArrayList<>(live.values())) {
+            inventory.clear();
+        }
+    }
+
+    private LocationInventory(Context appContext, String locationId) {
+        this.appContext = appContext;
+        this.locationId = locationId;
+        repository = repositoryFor(appContext, locationId);
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        alertSettings = user != null ? AlertSettingsCache.getInstance(locationId, user.getUid()) : null;
+        // LOW states whose alert was queued are kept across reloads, so those items do not alert again
+        alertEngine = new LowStockAlertEngine(LOW_STOCK_HYSTERESIS,
+                user != null ? new PrefsAlertStateStore(appContext, locationId, user.getUid()) : null,
+                this::onLowStock);
+        if (alertSettings != null) {
+            alertSettings.setThresholdListener(this::onThresholdChanged);
+            alertSettings.setPhoneNumberListener(this::onPhoneNumberChanged);
+        }
+
+        listen();
+        Log.d(TAG, "Loading inventory for " + locationId);
+    }
+
+    private void listen() {
+        itemSubscription = repository.listenToItems(new InventoryRepository.ItemChangeListener() {
+            @Override
+            public void onItemChanges(List<ItemChange> changes) {
+                LocationInventory.this.onItemChanges(changes);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                onListenFailed(error);
+            }
+        });
+    }
+
+    /**
+     * Drops the failed subscription and listens again after a backoff
+     * Screens keep the items they have until the new listener's first batch replaces them.
+     *
+     * @param error - Why the repository's listener stopped
+     */
+    private void onListenFailed(Exception error) {
+        Log.e(TAG, "Item listener failed for " + locationId + "; listening again", error);
+        itemSubscription.remove();
+        resyncing = true;
+
+        long backoff = RELISTEN_BACKOFF_MS << Math.min(listenFailures++, 6);
+        mainHandler.postDelayed(listen, Math.min(backoff, RELISTEN_MAX_BACKOFF_MS));
+    }
+
+    /**
+     * Returns the location's Firestore repository, creating it on first use in this process
+     * Screens that read Firestore directly, such as the admin pager, share it, so its shard count
+     * query runs once per location rather than once per screen.
+     *
+     * @param locationId - The location whose inventory it reads and writes
+     */
+    public static FirestoreInventoryRepository firestoreRepositoryFor(String locationId) {
+        FirestoreInventoryRepository repository = firestoreRepositories.get(locationId);
+        if (repository == null) {
+            repository = new FirestoreInventoryRepository(locationId);
+            firestoreRepositories.put(locationId, repository);
+        }
+        return repository;
+    }
+
+    /**
+     * Returns the location's repository, creating it on first use in this process
+     */
+    private static InventoryRepository repositoryFor(Context appContext, String locationId) {
+        InventoryRepository repository = repositories.get(locationId);
+        if (repository == null) {
+            FirestoreInventoryRepository firestoreRepository = firestoreRepositoryFor(locationId);
+            repository = new MeteredInventoryRepository(USE_LOCAL_MIRROR
+                    ? new MirroredInventoryRepository(appContext, firestoreRepository, locationId)
+                    : firestoreRepository);
+            repositories.put(locationId, repository);
+            backfillDerivedFieldsOnce(appContext, firestoreRepository, locationId);
+        }
+        return repository;
+    }
+
+    /**
+     * Runs the one-time epochDay and nameLower backfill for this location's older items
+     * Completion is remembered in SharedPreferences so it is not repeated
+     *
+     * @param appContext - Used to read and write the completion flag
+     * @param firestoreRepository - The Firestore repository for the location
+     * @param locationId - The location whose inventory should be migrated
+     */
+    private static void backfillDerivedFieldsOnce(Context appContext, FirestoreInventoryRepository firestoreRepository,
+                                                  String locationId) {
+        SharedPreferences prefs = appContext.getSharedPreferences("AppPrefs", Context.MODE_PRIVATE);
+        String key = "derivedFieldsBackfilled_" + locationId;
+        if (prefs.getBoolean(key, false)) return;
+
+        firestoreRepository.backfillDerivedFields(() -> prefs.edit().putBoolean(key, true).apply());
+    }
+
+    public InventoryRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * @return - The decoded, indexed items; kept up to date on the main thread
+     */
+    public InventoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return - The signed-in user's thresholds by monitored item name
+     */
+    public Map<String, Integer> getThresholds() {
+        return alertSettings != null ? alertSettings.getThresholds() : Collections.emptyMap();
+    }
+
+    /**
+     * Passes on each batch of item changes once it has been applied to the store
+     * The inventory is kept while the subscription is held; bind it to the screen's lifecycle.
+     *
+     * @param observer - Receives the changes on the main thread
+     * @return - The observer's subscription
+     */
+    public InventoryRepository.Subscription observeItems(InventoryRepository.ItemChangeListener observer) {
+        itemObservers.add(observer);
+        mainHandler.removeCallbacks(clearIfUnused);
+        return () -> {
+            if (itemObservers.remove(observer)) scheduleClearIfUnused();
+        };
+    }
+
+    /**
+     * The changes observeItems passes on, as a stream; the inventory is kept while it is subscribed
+     * UI consumers that only read the store should conflate it, so a burst of snapshots
+     * costs one refresh.
+     *
+     * @return - A stream of each batch of changes, on the main thread, after it is applied to the store
+     */
+    public InventoryStream<List<ItemChange>> changes() {
+        return InventoryStream.create(downstream -> observeItems(downstream::accept));
+    }
+
+    /**
+     * Passes on each threshold that is added, changed or removed, once the alert engine has it
+     * The inventory is kept while the subscription is held; bind it to the screen's lifecycle.
+     *
+     * @param observer - Receives the thresholds on the main thread
+     * @return - The observer's subscription
+     */
+    public InventoryRepository.Subscription observeThresholds(AlertSettingsCache.ThresholdListener observer) {
+        thresholdObservers.add(observer);
+        mainHandler.removeCallbacks(clearIfUnused);
+        return () -> {
+            if (thresholdObservers.remove(observer)) scheduleClearIfUnused();
+        };
+    }
+
+    private void onItemChanges(List<ItemChange> changes) {
+        listenFailures = 0;
+        if (resyncing) {
+            resyncing = false;
+            changes = withMissingItemsRemoved(changes);
+        }
+
+        for (ItemChange change : changes) {
+            if (change.getType() == ItemChange.Type.REMOVED) {
+                store.remove(change.getItemName());
+            } else {
+                store.put(change.getItem());
+            }
+        }
+
+        long start = InventoryMetrics.start();
+        for (ItemChange change : changes) {
+            if (change.getType() == ItemChange.Type.REMOVED) {
+                alertEngine.onItemRemoved(change.getItemName());
+            } else {
+                alertEngine.onItemChanged(change.getItemName(), change.getItem().getQuantity());
+            }
+        }
+        InventoryMetrics.stop(InventoryMetrics.Histogram.THRESHOLD_EVALUATION, start);
+
+        for (InventoryRepository.ItemChangeListener observer : new ArrayList<>(itemObservers)) {
+            observer.onItemChanges(changes);
+        }
+    }
+
+    /**
+     * Adds a REMOVED change for every stored item a new listener's first batch does not list,
+     * so items deleted while the listener was down leave the store too
+     *
+     * @param listing - The first batch of a new listener, every existing item as ADDED
+     * @return - The batch to apply in its place
+     */
+    private List<ItemChange> withMissingItemsRemoved(List<ItemChange> listing) {
+        Set<String> listed = new HashSet<>();
+        for (ItemChange change : listing) {
+            listed.add(change.getItemName());
+        }
+
+        List<ItemChange> changes = new ArrayList<>(listing);
+        for (Item item : store.getItems(SortCriterion.NAME, false)) {
+            if (!listed.contains(item.getItemName())) {
+                changes.add(new ItemChange(ItemChange.Type.REMOVED, item.getItemName(), null));
+            }
+        }
+        return changes;
+    }
+
+    private void onThresholdChanged(String itemName, Integer threshold) {
+        alertEngine.setThreshold(itemName, threshold);
+        for (AlertSettingsCache.ThresholdListener observer : new ArrayList<>(thresholdObservers)) {
+            observer.onThresholdChanged(itemName, threshold);
+        }
+    }
+
+    private void onPhoneNumberChanged(String phoneNumber) {
+        // Items that reached their threshold before a recipient was known alert now
+        if (phoneNumber != null && !phoneNumber.isEmpty()) alertEngine.evaluateAll();
+    }
+
+    /**
+     * Called by the alert engine when a monitored item drops to or below its threshold
+     * Queues an SMS alert to the signed-in user's cached phone number, if one is set.
+     * The queue batches alerts into a digest and sends it from a background thread.
+     *
+     * @param itemName - Monitored item's name
+     * @param quantity - Current quantity of item
+     * @param threshold - The threshold the item has reached
+     * @return - Whether the alert was queued; if not, the engine offers it again once the phone number loads
+     */
+    private boolean onLowStock(String itemName, int quantity, int threshold) {
+        if (alertSettings == null) return false;
+
+        String phone = alertSettings.getPhoneNumber();
+        if (phone == null || phone.isEmpty()) {
+            return false;
+        }
+
+        InventoryMetrics.increment(InventoryMetrics.Counter.LOW_STOCK_ALERTS);
+        AlertDigestQueue.getInstance(appContext).enqueue(phone, itemName, quantity)
+                .thenRunAsync(() -> alertEngine.onAlertQueued(itemName), mainHandler::post);
+        return true;
+    }
+
+    private void scheduleClearIfUnused() {
+        if (itemObservers.isEmpty() && thresholdObservers.isEmpty()) {
+            mainHandler.postDelayed(clearIfUnused, SnapshotListenerRegistry.GRACE_PERIOD_MS);
+        }
+    }
+
+    private void clearIfUnused() {
+        if (itemObservers.isEmpty() && thresholdObservers.isEmpty()) clear();
+    }
+
+    /**
+     * Stops listening and drops the items; the repository stays, for the next screen to use
+     */
+    private void clear() {
+        if (cleared) return;
+        cleared = true;
+
+        mainHandler.removeCallbacks(clearIfUnused);
+        mainHandler.removeCallbacks(listen);
+        itemSubscription.remove();
+        if (alertSettings != null) {
+            alertSettings.setThresholdListener(null);
+            alertSettings.setPhoneNumberListener(null);
+        }
+        if (live.get(locationId) == this) live.remove(locationId);
+        Log.d(TAG, "Cleared inventory for " + locationId);
+    }
+}
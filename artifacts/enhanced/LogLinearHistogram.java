@@ -0,0 +1,95 @@
+package com.example.projectthree;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LogLinearHistogram counts non-negative values in buckets whose width grows with the value,
+ * in the style of an HDR histogram
+ *
+ * Values below 32 get a bucket each; above that, every doubling of the value range is split
+ * into 16 buckets, so any value is recorded to within about 6% across the whole long range,
+ * in a fixed 7.5 KB (960 counts). Recording is lock-free and allocation-free.
+ */
+class LogLinearHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Exact buckets for the smallest values
+    private static final int HALF = SUB_BUCKETS / 2;             // Buckets per doubling above them
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param value - The value to count; negative values are counted as 0
+     */
+    void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * @param percentile - Between 0 and 100
+     * @return - The highest value in the bucket holding that percentile, or 0 if nothing was recorded
+     */
+    long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(highestValueIn(i), max.get());
+        }
+        return max.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / HALF - 1;
+        if (shift + SUB_BUCKET_BITS >= 63) return Long.MAX_VALUE;
+        long top = bucket % HALF + HALF;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.projectthree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JVM tests for LogLinearHistogram bucketing and percentiles
+ */
+public class LogLinearHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        for (long value = 0; value < 32; value++) {
+            Assert.assertEquals(value, LogLinearHistogram.highestValueIn(LogLinearHistogram.bucketOf(value)));
+        }
+    }
+
+    @Test
+    public void bucketsStayWithinRelativeError() {
+        long[] values = {32, 33, 100, 1_000, 123_456, 1L << 40, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            long highest = LogLinearHistogram.highestValueIn(LogLinearHistogram.bucketOf(value));
+            Assert.assertTrue(highest >= value);
+            Assert.assertTrue((double) (highest - value) / value <= 1.0 / 16);
+        }
+    }
+
+    @Test
+    public void bucketsAreOrderedAndInRange() {
+        int previous = -1;
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 2; value = value * 3 / 2 + 1) {
+            int bucket = LogLinearHistogram.bucketOf(value);
+            Assert.assertTrue(bucket >= previous);
+            Assert.assertTrue(bucket < 960);
+            previous = bucket;
+        }
+        Assert.assertTrue(LogLinearHistogram.bucketOf(Long.MAX_VALUE) < 960);
+    }
+
+    @Test
+    public void reportsPercentilesCountAndMean() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 1; i <= 100; i++) histogram.record(i);
+        histogram.record(-5);
+
+        Assert.assertEquals(101, histogram.getCount());
+        Assert.assertEquals(100, histogram.getMax());
+        Assert.assertEquals(5050 / 101.0, histogram.getMean(), 1e-9);
+
+        long median = histogram.getValueAtPercentile(50);
+        Assert.assertTrue(median >= 50 && median <= 53);
+        Assert.assertEquals(100, histogram.getValueAtPercentile(100));
+        Assert.assertEquals(0, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
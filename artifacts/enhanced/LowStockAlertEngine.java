@@ -0,0 +1,151 @@
+package com.example.projectthree;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LowStockAlertEngine decides when a monitored item should trigger a low inventory alert
+ * It is fed one item change at a time and only evaluates the item that changed.
+ * Each monitored item moves between OK and LOW, and an alert fires only on the OK to LOW
+ * transition. An item returns to OK once its quantity rises above threshold + hysteresis,
+ * so a quantity bouncing around the threshold does not alert repeatedly.
+ * An alert the listener cannot queue, e.g. before the recipient is known, leaves the item OK,
+ * so it alerts once evaluateAll() is called after the recipient arrives.
+ * With a state store, LOW states outlive the engine, so an item that already alerted
+ * is not alerted again when a new engine first sees it. A LOW state is saved only once
+ * onAlertQueued() reports its alert queued, so an alert lost before that is offered again.
+ *
+ * Plain Java with no Android or Firebase dependencies.
+ */
+public class LowStockAlertEngine {
+
+    public enum AlertState { OK, LOW }
+
+    /**
+     * Receives an alert each time a monitored item reaches its threshold while OK
+     * Returning false keeps the item OK, so the alert is offered again on the next evaluation.
+     */
+    public interface AlertListener {
+        boolean onLowStock(String itemName, int quantity, int threshold);
+    }
+
+    private final int hysteresis;
+    private final AlertListener listener;
+    private final AlertStateStore stateStore;
+
+    private final Map<String, Integer> quantities = new HashMap<>();
+    private final Map<String, Integer> thresholds = new HashMap<>();
+    private final Map<String, AlertState> states = new HashMap<>();
+    private final Set<String> savedLowItems = new HashSet<>();
+
+    /**
+     * @param hysteresis - Units above the threshold an item must reach before it can alert again
+     * @param listener - Offered an alert for each monitored item that reaches its threshold while OK
+     */
+    public LowStockAlertEngine(int hysteresis, AlertListener listener) {
+        this(hysteresis, null, listener);
+    }
+
+    /**
+     * @param hysteresis - Units above the threshold an item must reach before it can alert again
+     * @param stateStore - Seeds the LOW states and is given the queued ones whenever they change; may be null
+     * @param listener - Offered an alert for each monitored item that reaches its threshold while OK
+     */
+    public LowStockAlertEngine(int hysteresis, AlertStateStore stateStore, AlertListener listener) {
+        this.hysteresis = hysteresis;
+        this.listener = listener;
+        this.stateStore = stateStore;
+        if (stateStore != null) {
+            savedLowItems.addAll(stateStore.loadLowItems());
+            for (String itemName : savedLowItems) {
+                states.put(itemName, AlertState.LOW);
+            }
+        }
+    }
+
+    /**
+     * Records an item's new quantity and evaluates it if it is monitored
+     *
+     * @param itemName - The changed item
+     * @param quantity - Its current quantity
+     */
+    public void onItemChanged(String itemName, int quantity) {
+        quantities.put(itemName, quantity);
+        evaluate(itemName);
+    }
+
+    /**
+     * Forgets a deleted item; its state starts over at OK if it is added again
+     *
+     * @param itemName - The removed item
+     */
+    public void onItemRemoved(String itemName) {
+        quantities.remove(itemName);
+        states.remove(itemName);
+        forgetSavedState(itemName);
+    }
+
+    /**
+     * Starts, changes or stops monitoring an item, evaluating it against the new threshold
+     *
+     * @param itemName - The monitored item
+     * @param threshold - The alert threshold, or null to stop monitoring
+     */
+    public void setThreshold(String itemName, Integer threshold) {
+        if (threshold == null) {
+            thresholds.remove(itemName);
+            states.remove(itemName);
+            forgetSavedState(itemName);
+            return;
+        }
+        thresholds.put(itemName, threshold);
+        evaluate(itemName);
+    }
+
+    /**
+     * Saves an item's LOW state once the listener has durably queued its alert
+     *
+     * @param itemName - The item whose alert was queued
+     */
+    public void onAlertQueued(String itemName) {
+        if (stateStore == null || getState(itemName) != AlertState.LOW) return;
+        if (savedLowItems.add(itemName)) stateStore.saveLowItems(new HashSet<>(savedLowItems));
+    }
+
+    /**
+     * Evaluates every monitored item again, so alerts the listener could not queue are offered again
+     */
+    public void evaluateAll() {
+        for (String itemName : thresholds.keySet()) {
+            evaluate(itemName);
+        }
+    }
+
+    public AlertState getState(String itemName) {
+        AlertState state = states.get(itemName);
+        return state != null ? state : AlertState.OK;
+    }
+
+    private void evaluate(String itemName) {
+        Integer threshold = thresholds.get(itemName);
+        Integer quantity = quantities.get(itemName);
+        if (threshold == null || quantity == null) return;
+
+        if (getState(itemName) == AlertState.OK) {
+            if (quantity <= threshold && listener.onLowStock(itemName, quantity, threshold)) {
+                states.put(itemName, AlertState.LOW);
+            }
+        } else if (quantity > threshold + hysteresis) {
+            states.put(itemName, AlertState.OK);
+            forgetSavedState(itemName);
+        }
+    }
+
+    private void forgetSavedState(String itemName) {
+        if (stateStore != null && savedLowItems.remove(itemName)) {
+            stateStore.saveLowItems(new HashSet<>(savedLowItems));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.projectthree;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JVM tests for LowStockAlertEngine's OK/LOW transitions, hysteresis and persisted states
+ */
+public class LowStockAlertEngineTest {
+
+    private static final int HYSTERESIS = 5;
+
+    private final List<String> alerts = new ArrayList<>();
+    private LowStockAlertEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new LowStockAlertEngine(HYSTERESIS, (itemName, quantity, threshold) ->
+                alerts.add(itemName + ":" + quantity + "/" + threshold));
+    }
+
+    @Test
+    public void alertsOnceWhenQuantityDropsToThreshold() {
+        engine.setThreshold("bolts", 10);
+        engine.onItemChanged("bolts", 20);
+        Assert.assertTrue(alerts.isEmpty());
+
+        engine.onItemChanged("bolts", 10);
+        engine.onItemChanged("bolts", 4);
+
+        Assert.assertEquals(Collections.singletonList("bolts:10/10"), alerts);
+        Assert.assertEquals(LowStockAlertEngine.AlertState.LOW, engine.getState("bolts"));
+    }
+
+    @Test
+    public void staysLowUntilQuantityClearsHysteresis() {
+        engine.setThreshold("bolts", 10);
+        engine.onItemChanged("bolts", 8);
+
+        engine.onItemChanged("bolts", 15);
+        Assert.assertEquals(LowStockAlertEngine.AlertState.LOW, engine.getState("bolts"));
+        engine.onItemChanged("bolts", 9);
+        Assert.assertEquals(1, alerts.size());
+
+        engine.onItemChanged("bolts", 16);
+        Assert.assertEquals(LowStockAlertEngine.AlertState.OK, engine.getState("bolts"));
+        engine.onItemChanged("bolts", 7);
+        Assert.assertEquals(2, alerts.size());
+    }
+
+    @Test
+    public void ignoresItemsWithoutThreshold() {
+        engine.onItemChanged("nuts", 0);
+
+        Assert.assertTrue(alerts.isEmpty());
+        Assert.assertEquals(LowStockAlertEngine.AlertState.OK, engine.getState("nuts"));
+    }
+
+    @Test
+    public void evaluatesKnownQuantityWhenThresholdIsSet() {
+        engine.onItemChanged("nuts", 3);
+        engine.setThreshold("nuts", 5);
+
+        Assert.assertEquals(Collections.singletonList("nuts:3/5"), alerts);
+    }
+
+    @Test
+    public void clearingThresholdResetsState() {
+        engine.setThreshold("nuts", 5);
+        engine.onItemChanged("nuts", 3);
+        engine.setThreshold("nuts", null);
+        Assert.assertEquals(LowStockAlertEngine.AlertState.OK, engine.getState("nuts"));
+
+        engine.setThreshold("nuts", 5);
+        Assert.assertEquals(2, alerts.size());
+    }
+
+    @Test
+    public void removedItemStartsOverAtOk() {
+        engine.setThreshold("nuts", 5);
+        engine.onItemChanged("nuts", 3);
+        engine.onItemRemoved("nuts");
+        Assert.assertEquals(LowStockAlertEngine.AlertState.OK, engine.getState("nuts"));
+
+        engine.onItemChanged("nuts", 2);
+        Assert.assertEquals(2, alerts.size());
+    }
+
+    @Test
+    public void alertNotQueuedKeepsItemOkUntilEvaluatedAgain() {
+        boolean[] recipientKnown = {false};
+        LowStockAlertEngine waiting = new LowStockAlertEngine(HYSTERESIS, (itemName, quantity, threshold) ->
+                recipientKnown[0] && alerts.add(itemName + ":" + quantity));
+        waiting.setThreshold("bolts", 10);
+        waiting.onItemChanged("bolts", 4);
+        Assert.assertEquals(LowStockAlertEngine.AlertState.OK, waiting.getState("bolts"));
+
+        recipientKnown[0] = true;
+        waiting.evaluateAll();
+        waiting.evaluateAll();
+
+        Assert.assertEquals(Collections.singletonList("bolts:4"), alerts);
+        Assert.assertEquals(LowStockAlertEngine.AlertState.LOW, waiting.getState("bolts"));
+    }
+
+    @Test
+    public void storedLowStatesSuppressRepeatAlerts() {
+        FakeStateStore store = new FakeStateStore();
+        LowStockAlertEngine first = new LowStockAlertEngine(HYSTERESIS, store, (itemName, quantity, threshold) ->
+                alerts.add(itemName));
+        first.setThreshold("bolts", 10);
+        first.onItemChanged("bolts", 4);
+        Assert.assertTrue(store.lowItems.isEmpty());
+
+        first.onAlertQueued("bolts");
+        Assert.assertEquals(Collections.singleton("bolts"), store.lowItems);
+
+        LowStockAlertEngine reloaded = new LowStockAlertEngine(HYSTERESIS, store, (itemName, quantity, threshold) ->
+                alerts.add(itemName));
+        reloaded.setThreshold("bolts", 10);
+        reloaded.onItemChanged("bolts", 4);
+        Assert.assertEquals(1, alerts.size());
+
+        reloaded.onItemChanged("bolts", 20);
+        Assert.assertTrue(store.lowItems.isEmpty());
+    }
+
+    @Test
+    public void unqueuedLowStateIsNotKept() {
+        FakeStateStore store = new FakeStateStore();
+        LowStockAlertEngine first = new LowStockAlertEngine(HYSTERESIS, store, (itemName, quantity, threshold) ->
+                alerts.add(itemName));
+        first.setThreshold("bolts", 10);
+        first.onItemChanged("bolts", 4);
+
+        LowStockAlertEngine restarted = new LowStockAlertEngine(HYSTERESIS, store, (itemName, quantity, threshold) ->
+                alerts.add(itemName));
+        restarted.setThreshold("bolts", 10);
+        restarted.onItemChanged("bolts", 4);
+
+        Assert.assertEquals(2, alerts.size());
+    }
+
+    @Test
+    public void queuedAfterRecoveryIsNotSaved() {
+        FakeStateStore store = new FakeStateStore();
+        LowStockAlertEngine engine = new LowStockAlertEngine(HYSTERESIS, store, (itemName, quantity, threshold) ->
+                alerts.add(itemName));
+        engine.setThreshold("bolts", 10);
+        engine.onItemChanged("bolts", 4);
+        engine.onItemChanged("bolts", 30);
+        engine.onAlertQueued("bolts");
+
+        Assert.assertTrue(store.lowItems.isEmpty());
+    }
+
+    private static class FakeStateStore implements AlertStateStore {
+        Set<String> lowItems = new HashSet<>();
+
+        @Override
+        public Set<String> loadLowItems() {
+            return new HashSet<>(lowItems);
+        }
+
+        @Override
+        public void saveLowItems(Set<String> lowItems) {
+            this.lowItems = new HashSet<>(lowItems);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.projectthree;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MeteredInventoryRepository records each call's latency, from the call until its future
+ * completes, and counts failed calls in InventoryMetrics
+ * For writes this is the round trip the screens wait for. Costs one flag read per call while
+ * metrics are disabled.
+ */
+public class MeteredInventoryRepository implements InventoryRepository {
+
+    private final InventoryRepository repository;
+
+    /**
+     * @param repository - The repository to measure
+     */
+    public MeteredInventoryRepository(InventoryRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public CompletableFuture<Void> addItem(Item item) {
+        return InventoryMetrics.time(InventoryMetrics.Histogram.REPOSITORY_ADD_ITEM, repository.addItem(item));
+    }
+
+    @Override
+    public CompletableFuture<Void> addItems(List<Item> items) {
+        return InventoryMetrics.time(InventoryMetrics.Histogram.REPOSITORY_ADD_ITEMS, repository.addItems(items));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateItemQuantity(String itemName, int newQuantity) {
+        return InventoryMetrics.time(InventoryMetrics.Histogram.REPOSITORY_UPDATE_QUANTITY,
+                repository.updateItemQuantity(itemName, newQuantity));
+    }
+
+    @Override
+    public CompletableFuture<Void> adjustQuantity(String itemName, int delta) {
+        return InventoryMetrics.time(InventoryMetrics.Histogram.REPOSITORY_ADJUST_QUANTITY,
+                repository.adjustQuantity(itemName, delta));
+    }
+
+    @Override
+    public CompletableFuture<Void> adjustQuantities(Map<String, Integer> deltas) {
+        return InventoryMetrics.time(InventoryMetrics.Histogram.REPOSITORY_ADJUST_QUANTITIES,
+                repository.adjustQuantities(deltas));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteItem(String itemName) {
+        return InventoryMetrics.time(InventoryMetrics.Histogram.REPOSITORY_DELETE_ITEM, repository.deleteItem(itemName));
+    }
+
+    @Override
+    public CompletableFuture<List<Item>> loadPage(String startAfter, int pageSize) {
+        return InventoryMetrics.time(InventoryMetrics.Histogram.REPOSITORY_LOAD_PAGE,
+                repository.loadPage(startAfter, pageSize));
+    }
+
+    @Override
+    public Subscription listenToItems(ItemChangeListener listener) {
+        return repository.listenToItems(listener);
+    }
+}
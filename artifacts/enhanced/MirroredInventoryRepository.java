@@ -0,0 +1,220 @@
+package com.example.projectthree;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MirroredInventoryRepository serves a location's inventory from a local SQLite mirror,
+ * with Firestore as the sync source rather than the read path
+ *
+ * Listening first replays the mirror, so the list fills on cold start without waiting for
+ * the network. Firestore snapshot deltas are then forwarded to the listener and written to
+ * the mirror in one transaction per snapshot. The first snapshot confirmed by the server
+ * also removes mirrored items that were deleted while the app was away.
+ * Writes are recorded in a durable MutationQueue, then sent to Firestore, whose local snapshot
+ * events bring them into the mirror, even offline.
+ */
+public class MirroredInventoryRepository implements InventoryRepository {
+
+    private static final String TAG = "MirroredRepo";
+
+    private final FirestoreInventoryRepository source;
+    private final InventoryDbHelper dbHelper;
+    private final String locationId;
+    private final ExecutorService mirrorExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MutationQueue mutations;
+
+    /**
+     * @param context - Used to open the location's mirror database
+     * @param source - The Firestore repository the mirror syncs from and writes go to
+     * @param locationId - The location being mirrored
+     */
+    public MirroredInventoryRepository(Context context, FirestoreInventoryRepository source, String locationId) {
+        this.source = source;
+        this.dbHelper = new InventoryDbHelper(context, locationId);
+        this.locationId = locationId;
+        this.mutations = new MutationQueue(source, dbHelper, mirrorExecutor, locationId, clientId(context));
+        mutations.start();
+    }
+
+    /**
+     * @return - A random ID for this install, created on first use
+     */
+    private static String clientId(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences("AppPrefs", Context.MODE_PRIVATE);
+        String clientId = prefs.getString("mutationClientId", null);
+        if (clientId == null) {
+            clientId = UUID.randomUUID().toString();
+            prefs.edit().putString("mutationClientId", clientId).apply();
+        }
+        return clientId;
+    }
+
+    @Override
+    public CompletableFuture<Void> addItem(Item item) {
+        return mutations.enqueue(Mutation.set(item));
+    }
+
+    @Override
+    public CompletableFuture<Void> addItems(List<Item> items) {
+        List<CompletableFuture<Void>> writes = new ArrayList<>(items.size());
+        for (Item item : items) {
+            writes.add(mutations.enqueue(Mutation.set(item)));
+        }
+        return InventoryFutures.joinAll(writes).thenApply(done -> null);
+    }
+
+    /**
+     * Logs the new quantity; a later edit to the same item made before it is sent replaces it
+     */
+    @Override
+    public CompletableFuture<Void> updateItemQuantity(String itemName, int newQuantity) {
+        return mutations.enqueue(Mutation.updateQuantity(itemName, newQuantity));
+    }
+
+    @Override
+    public CompletableFuture<Void> adjustQuantity(String itemName, int delta) {
+        return mutations.enqueue(Mutation.adjust(itemName, delta));
+    }
+
+    @Override
+    public CompletableFuture<Void> adjustQuantities(Map<String, Integer> deltas) {
+        List<CompletableFuture<Void>> writes = new ArrayList<>(deltas.size());
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            writes.add(mutations.enqueue(Mutation.adjust(delta.getKey(), delta.getValue())));
+        }
+        return InventoryFutures.joinAll(writes).thenApply(done -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteItem(String itemName) {
+        return mutations.enqueue(Mutation.delete(itemName));
+    }
+
+    /**
+     * Reads a page from the mirror using the primary key index on itemName
+     */
+    @Override
+    public CompletableFuture<List<Item>> loadPage(String startAfter, int pageSize) {
+        return CompletableFuture.supplyAsync(() -> {
+            String selection = startAfter == null ? null : InventoryDbHelper.COLUMN_ITEM_NAME + " > ?";
+            String[] args = startAfter == null ? null : new String[]{startAfter};
+            try (Cursor cursor = dbHelper.getReadableDatabase().query(InventoryDbHelper.ITEM_TABLE,
+                    InventoryDbHelper.ITEM_COLUMNS, selection, args, null, null,
+                    InventoryDbHelper.COLUMN_ITEM_NAME, String.valueOf(pageSize))) {
+                return InventoryDbHelper.readItems(cursor, locationId);
+            }
+        }, mirrorExecutor);
+    }
+
+    /**
+     * Replays the mirror to the listener as ADDED changes, then starts syncing from Firestore
+     * Changes, and a failure of the sync listener, are delivered on the main thread.
+     *
+     * @param listener - Receives the mirrored items, then every synced change
+     * @return - The listener's subscription; removing it also stops its sync listener
+     */
+    @Override
+    public Subscription listenToItems(ItemChangeListener listener) {
+        AtomicBoolean removed = new AtomicBoolean();
+        Subscription[] sync = {null}; // Only touched on the mirror thread
+
+        mirrorExecutor.execute(() -> {
+            if (removed.get()) return;
+
+            List<ItemChange> mirrored = new ArrayList<>();
+            Set<String> mirroredNames = new HashSet<>();
+            try (Cursor cursor = dbHelper.getReadableDatabase().query(InventoryDbHelper.ITEM_TABLE,
+                    InventoryDbHelper.ITEM_COLUMNS, null, null, null, null, null)) {
+                for (Item item : InventoryDbHelper.readItems(cursor, locationId)) {
+                    mirrored.add(new ItemChange(ItemChange.Type.ADDED, item.getItemName(), item));
+                    mirroredNames.add(item.getItemName());
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error reading inventory mirror", e);
+            }
+            if (!mirrored.isEmpty()) deliver(listener, removed, mirrored);
+
+            sync[0] = source.listenForSync(new FirestoreInventoryRepository.SyncListener() {
+                @Override
+                public void onSync(List<ItemChange> changes, Set<String> serverIds) {
+                    List<ItemChange> synced = new ArrayList<>(changes);
+                    if (serverIds != null) {
+                        for (String itemName : mirroredNames) {
+                            if (!serverIds.contains(itemName)) {
+                                synced.add(new ItemChange(ItemChange.Type.REMOVED, itemName, null));
+                            }
+                        }
+                    }
+                    if (synced.isEmpty()) return;
+
+                    deliver(listener, removed, synced);
+                    mirrorExecutor.execute(() -> applyToMirror(synced));
+                }
+
+                @Override
+                public void onError(Exception error) {
+                    mainHandler.post(() -> {
+                        if (!removed.get()) listener.onError(error);
+                    });
+                }
+            });
+        });
+
+        return () -> {
+            removed.set(true);
+            mirrorExecutor.execute(() -> {
+                if (sync[0] != null) sync[0].remove();
+            });
+        };
+    }
+
+    private void deliver(ItemChangeListener listener, AtomicBoolean removed, List<ItemChange> changes) {
+        mainHandler.post(() -> {
+            if (!removed.get()) listener.onItemChanges(changes);
+        });
+    }
+
+    /**
+     * Writes one snapshot's changes to the mirror in a single transaction
+     */
+    private void applyToMirror(List<ItemChange> changes) {
+        try {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (ItemChange change : changes) {
+                    if (change.getType() == ItemChange.Type.REMOVED) {
+                        db.delete(InventoryDbHelper.ITEM_TABLE, InventoryDbHelper.WHERE_ITEM_NAME,
+                                new String[]{change.getItemName()});
+                    } else {
+                        db.insertWithOnConflict(InventoryDbHelper.ITEM_TABLE, null,
+                                InventoryDbHelper.toValues(change.getItem()), SQLiteDatabase.CONFLICT_REPLACE);
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error updating inventory mirror", e);
+        }
+    }
+}
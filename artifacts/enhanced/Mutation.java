@@ -0,0 +1,83 @@
+package com.example.projectthree;
+
+/**
+ * One inventory write recorded in the mutation log before it is sent to Firestore
+ * Entries are immutable; collapsing two entries for the same item produces a new one.
+ */
+final class Mutation {
+
+    enum Type { SET, UPDATE_QUANTITY, ADJUST, DELETE }
+
+    final long seq;
+    final Type type;
+    final String itemName;
+    final Item item; // The full item for SET, otherwise null
+    final int value; // New quantity for UPDATE_QUANTITY, delta for ADJUST
+    final long epochDay; // Day the mutation was made, stamped on the item
+
+    Mutation(long seq, Type type, String itemName, Item item, int value, long epochDay) {
+        this.seq = seq;
+        this.type = type;
+        this.itemName = itemName;
+        this.item = item;
+        this.value = value;
+        this.epochDay = epochDay;
+    }
+
+    static Mutation set(Item item) {
+        return new Mutation(0, Type.SET, item.getItemName(), item, item.getQuantity(), item.getEpochDay());
+    }
+
+    static Mutation updateQuantity(String itemName, int quantity) {
+        return new Mutation(0, Type.UPDATE_QUANTITY, itemName, null, quantity, InventoryDates.today());
+    }
+
+    static Mutation adjust(String itemName, int delta) {
+        return new Mutation(0, Type.ADJUST, itemName, null, delta, InventoryDates.today());
+    }
+
+    static Mutation delete(String itemName) {
+        return new Mutation(0, Type.DELETE, itemName, null, 0, InventoryDates.today());
+    }
+
+    Mutation withSeq(long seq) {
+        return new Mutation(seq, type, itemName, item, value, epochDay);
+    }
+
+    /**
+     * Merges a pending mutation with a later one for the same item into a single mutation
+     * with the same final effect
+     *
+     * @param earlier - The mutation still waiting to be sent
+     * @param later - The mutation recorded after it
+     * @return - The merged mutation, not yet given a sequence number
+     */
+    static Mutation collapse(Mutation earlier, Mutation later) {
+        if (later.type == Type.SET || later.type == Type.DELETE) return later;
+        // Quantity changes on a deleted item would fail on the server, so the delete stands
+        if (earlier.type == Type.DELETE) return earlier;
+
+        if (later.type == Type.UPDATE_QUANTITY) {
+            if (earlier.type != Type.SET) return later;
+            return set(earlier.item.withQuantity(later.value, later.epochDay));
+        }
+
+        switch (earlier.type) {
+            case SET:
+                return set(earlier.item.withQuantity(earlier.item.getQuantity() + later.value, later.epochDay));
+            case UPDATE_QUANTITY:
+                return new Mutation(0, Type.UPDATE_QUANTITY, later.itemName, null,
+                        earlier.value + later.value, later.epochDay);
+            default:
+                return new Mutation(0, Type.ADJUST, later.itemName, null,
+                        earlier.value + later.value, later.epochDay);
+        }
+    }
+
+    /**
+     * @return - Whether this mutation sets the item's whole state, so earlier mutations no longer matter
+     */
+    boolean overwritesItem() {
+        return type != Type.ADJUST;
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.projectthree;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * MutationQueue is a durable write-ahead log of one location's inventory edits
+ *
+ * Every edit is recorded in the Mutations table before it is sent to Firestore. An edit that
+ * has not been sent yet is merged with later edits to the same item, so a backlog holds at most
+ * one pending entry per item. Pending entries are sent in sequence order, DRAIN_WINDOW_MS after
+ * the first of them, packed into as few WriteBatches as fit, and leave the log only when the
+ * server commits their batch, or a later batch that overwrote them. Sent entries that are still
+ * offline wait in Firestore's own queue.
+ *
+ * After each drain a separate write records, in a per-install ack document, the highest sequence
+ * number handed to Firestore so far. It is kept out of the edits' batches so that an edit never
+ * fails on the ack collection's rules. Firestore persists its own pending writes, so after a
+ * restart the entries at or below the ack in Firestore's local cache are already queued there
+ * and are not sent again; they are removed once Firestore's pending writes commit. All later
+ * entries are replayed, including, if the process died between the two writes, the last drain's.
+ * All state is confined to the executor, which must run one task at a time.
+ */
+class MutationQueue {
+
+    private static final String TAG = "MutationQueue";
+    private static final long DRAIN_WINDOW_MS = 250;
+    // How long replay waits for the sharded items to be known before sending anyway
+    private static final long SHARD_COUNT_WAIT_MS = 10_000;
+
+    private final FirestoreInventoryRepository source;
+    private final InventoryDbHelper dbHelper;
+    private final Executor executor;
+    private final String locationId;
+    private final DocumentReference ackRef;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Entries not yet sent, one per item, in sequence order
+    private final Map<String, Mutation> pendingByItem = new LinkedHashMap<>();
+    // The latest entry sent for each item
+    private final Map<String, Mutation> lastSentByItem = new HashMap<>();
+    // The highest sequence number committed for each item
+    private final Map<String, Long> lastCommittedByItem = new HashMap<>();
+    // Sequence numbers sent and not yet acknowledged
+    private final Set<Long> inFlight = new HashSet<>();
+    // Entries left out of a retry, by the sequence number of the later entry that overwrites them
+    private final Map<Long, List<Mutation>> coveredBy = new HashMap<>();
+    private final Map<Long, List<CompletableFuture<Void>>> waiters = new HashMap<>();
+    private long highestSentSeq;
+    private boolean recovered;
+    private boolean shardsKnown;
+    private boolean drainScheduled;
+
+    /**
+     * @param source - The Firestore repository entries are written through
+     * @param dbHelper - The location's database holding the Mutations table
+     * @param executor - A single-threaded executor, shared with any other user of the database
+     * @param locationId - The location whose edits are logged
+     * @param clientId - Identifies this install's ack document
+     */
+    MutationQueue(FirestoreInventoryRepository source, InventoryDbHelper dbHelper, Executor executor,
+                  String locationId, String clientId) {
+        this.source = source;
+        this.dbHelper = dbHelper;
+        this.executor = executor;
+        this.locationId = locationId;
+        this.ackRef = source.mutationAckRef(clientId);
+    }
+
+    /**
+     * Loads the log left by earlier runs and replays whatever Firestore did not already receive
+     * Nothing is sent until the source knows which items are sharded, so an absolute quantity or
+     * delete reaches every shard. Edits enqueued before recovery finishes are held and sent after
+     * the replayed entries.
+     */
+    void start() {
+        InventoryFutures.withDeadline(source.shardCountsLoaded(), SHARD_COUNT_WAIT_MS).whenCompleteAsync((loaded, e) -> {
+            if (e != null) Log.e(TAG, "Sending edits before sharded items are known", e);
+            shardsKnown = true;
+            drain();
+        }, executor);
+
+        executor.execute(() -> {
+            List<Mutation> logged = readLog();
+            if (logged.isEmpty()) {
+                recovered = true;
+                drain();
+                return;
+            }
+
+            ackRef.get(Source.CACHE).addOnCompleteListener(executor, task -> {
+                Long ack = task.isSuccessful() ? task.getResult().getLong("lastSeq") : null;
+                long handedOffSeq = ack != null ? ack : 0;
+
+                List<Long> handedOff = new ArrayList<>();
+                Map<String, Mutation> heldDuringRecovery = new LinkedHashMap<>(pendingByItem);
+                pendingByItem.clear();
+                for (Mutation entry : logged) {
+                    if (entry.seq <= handedOffSeq) {
+                        handedOff.add(entry.seq);
+                    } else {
+                        addPending(entry);
+                    }
+                }
+                for (Mutation entry : heldDuringRecovery.values()) {
+                    addPending(entry);
+                }
+                highestSentSeq = Math.max(highestSentSeq, handedOffSeq);
+
+                if (!handedOff.isEmpty()) {
+                    Log.d(TAG, handedOff.size() + " logged edits already queued in Firestore");
+                    source.waitForPendingWrites().addOnSuccessListener(executor, aVoid -> deleteRows(handedOff));
+                }
+                Log.d(TAG, "Replaying " + pendingByItem.size() + " logged edits");
+                recovered = true;
+                drain();
+            });
+        });
+    }
+
+    /**
+     * Records an edit in the log, then sends it with any other pending edits
+     *
+     * @param mutation - The edit to apply
+     * @return - A future that completes when the server commits the edit, or an edit it was merged into
+     */
+    CompletableFuture<Void> enqueue(Mutation mutation) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                long seq = dbHelper.getWritableDatabase()
+                        .insertOrThrow(InventoryDbHelper.MUTATION_TABLE, null, toValues(mutation));
+                Mutation entry = addPending(mutation.withSeq(seq));
+                waitersFor(entry.seq).add(future);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error logging inventory edit", e);
+                future.completeExceptionally(e);
+                return;
+            }
+            scheduleDrain();
+        });
+        return future;
+    }
+
+    /**
+     * Makes a logged entry pending, merging it with the item's pending entry if there is one
+     * The merged entry replaces both rows and takes a new, higher sequence number, so an
+     * unsent entry never sits at or below a sequence number already handed to Firestore.
+     */
+    private Mutation addPending(Mutation entry) {
+        Mutation earlier = pendingByItem.remove(entry.itemName);
+        if (earlier == null) {
+            pendingByItem.put(entry.itemName, entry);
+            return entry;
+        }
+
+        Mutation merged = Mutation.collapse(earlier, entry);
+        InventoryMetrics.increment(InventoryMetrics.Counter.WRITES_SAVED);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        long seq;
+        db.beginTransaction();
+        try {
+            String[] seqs = {String.valueOf(earlier.seq), String.valueOf(entry.seq)};
+            db.delete(InventoryDbHelper.MUTATION_TABLE,
+                    InventoryDbHelper.COLUMN_SEQ + " IN (?, ?)", seqs);
+            seq = db.insertOrThrow(InventoryDbHelper.MUTATION_TABLE, null, toValues(merged));
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        merged = merged.withSeq(seq);
+        moveWaiters(earlier.seq, seq);
+        moveWaiters(entry.seq, seq);
+        pendingByItem.put(merged.itemName, merged);
+        return merged;
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled) return;
+        drainScheduled = true;
+        mainHandler.postDelayed(() -> executor.execute(() -> {
+            drainScheduled = false;
+            drain();
+        }), DRAIN_WINDOW_MS);
+    }
+
+    /**
+     * Sends every pending entry, in sequence order, packed into WriteBatches
+     * Firestore commits batches in the order they are sent, so they are not waited on in turn.
+     */
+    private void drain() {
+        if (!recovered || !shardsKnown || pendingByItem.isEmpty()) return;
+
+        List<Mutation> batchEntries = new ArrayList<>();
+        int writes = 0;
+        for (Mutation entry : pendingByItem.values()) {
+            int needed = source.writesFor(entry);
+            if (!batchEntries.isEmpty() && writes + needed > FirestoreInventoryRepository.MAX_BATCH_WRITES) {
+                commit(batchEntries);
+                batchEntries = new ArrayList<>();
+                writes = 0;
+            }
+            batchEntries.add(entry);
+            writes += needed;
+        }
+        pendingByItem.clear();
+        commit(batchEntries);
+
+        ackRef.set(Collections.singletonMap("lastSeq", highestSentSeq), SetOptions.merge())
+                .addOnFailureListener(executor, e -> Log.e(TAG, "Error recording sent edits", e));
+    }
+
+    private void commit(List<Mutation> entries) {
+        WriteBatch batch = source.newBatch();
+        for (Mutation entry : entries) {
+            source.stageMutation(batch, entry);
+            lastSentByItem.put(entry.itemName, entry);
+            inFlight.add(entry.seq);
+            highestSentSeq = Math.max(highestSentSeq, entry.seq);
+        }
+
+        batch.commit().addOnCompleteListener(executor, task -> {
+            if (task.isSuccessful()) {
+                acknowledge(entries, null);
+            } else if (entries.size() == 1) {
+                Log.e(TAG, "Inventory edit rejected: " + entries.get(0).type + " " + entries.get(0).itemName,
+                        task.getException());
+                acknowledge(entries, task.getException());
+            } else {
+                // One rejected edit fails its whole batch, so retry each on its own. Resending an
+                // entry a later one has overwritten would undo the later one, so it waits for it instead.
+                for (Mutation entry : entries) {
+                    Mutation latest = lastSentByItem.get(entry.itemName);
+                    if (latest != entry && latest.overwritesItem()) {
+                        coverWith(entry, latest);
+                    } else {
+                        commit(Collections.singletonList(entry));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Settles an entry whose batch failed by the later entry that overwrites it: acknowledged once
+     * that one commits, or sent again on its own if that one was rejected
+     */
+    private void coverWith(Mutation entry, Mutation latest) {
+        if (inFlight.contains(latest.seq)) {
+            List<Mutation> covered = coveredBy.get(latest.seq);
+            if (covered == null) {
+                covered = new ArrayList<>();
+                coveredBy.put(latest.seq, covered);
+            }
+            covered.add(entry);
+            return;
+        }
+
+        Long committed = lastCommittedByItem.get(entry.itemName);
+        if (committed != null && committed >= latest.seq) {
+            acknowledge(Collections.singletonList(entry), null);
+        } else {
+            commit(Collections.singletonList(entry));
+        }
+    }
+
+    /**
+     * Removes committed or abandoned entries from the log and completes their callers' futures
+     * Entries waiting on one of them are settled too.
+     */
+    private void acknowledge(List<Mutation> entries, Exception error) {
+        List<Long> seqs = new ArrayList<>(entries.size());
+        for (Mutation entry : entries) {
+            seqs.add(entry.seq);
+            inFlight.remove(entry.seq);
+            if (error == null) {
+                Long committed = lastCommittedByItem.get(entry.itemName);
+                if (committed == null || committed < entry.seq) lastCommittedByItem.put(entry.itemName, entry.seq);
+            }
+
+            List<Mutation> covered = coveredBy.remove(entry.seq);
+            if (covered != null) {
+                if (error == null) {
+                    acknowledge(covered, null);
+                } else {
+                    for (Mutation earlier : covered) {
+                        commit(Collections.singletonList(earlier));
+                    }
+                }
+            }
+
+            List<CompletableFuture<Void>> futures = waiters.remove(entry.seq);
+            if (futures == null) continue;
+            for (CompletableFuture<Void> future : futures) {
+                if (error == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            }
+        }
+        deleteRows(seqs);
+    }
+
+    private void deleteRows(List<Long> seqs) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        SQLiteStatement delete = db.compileStatement("DELETE FROM " + InventoryDbHelper.MUTATION_TABLE
+                + " WHERE " + InventoryDbHelper.COLUMN_SEQ + " = ?");
+        db.beginTransaction();
+        try {
+            for (long seq : seqs) {
+                delete.bindLong(1, seq);
+                delete.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error removing acknowledged edits", e);
+        } finally {
+            db.endTransaction();
+            delete.close();
+        }
+    }
+
+    private List<CompletableFuture<Void>> waitersFor(long seq) {
+        List<CompletableFuture<Void>> futures = waiters.get(seq);
+        if (futures == null) {
+            futures = new ArrayList<>();
+            waiters.put(seq, futures);
+        }
+        return futures;
+    }
+
+    private void moveWaiters(long fromSeq, long toSeq) {
+        List<CompletableFuture<Void>> futures = waiters.remove(fromSeq);
+        if (futures != null) waitersFor(toSeq).addAll(futures);
+    }
+
+    private List<Mutation> readLog() {
+        List<Mutation> entries = new ArrayList<>();
+        try (Cursor cursor = dbHelper.getReadableDatabase().query(InventoryDbHelper.MUTATION_TABLE, null,
+                null, null, null, null, InventoryDbHelper.COLUMN_SEQ)) {
+            int seqIndex = cursor.getColumnIndexOrThrow(InventoryDbHelper.COLUMN_SEQ);
+            int nameIndex = cursor.getColumnIndexOrThrow(InventoryDbHelper.COLUMN_ITEM_NAME);
+            int typeIndex = cursor.getColumnIndexOrThrow(InventoryDbHelper.COLUMN_TYPE);
+            int valueIndex = cursor.getColumnIndexOrThrow(InventoryDbHelper.COLUMN_VALUE);
+            int epochDayIndex = cursor.getColumnIndexOrThrow(InventoryDbHelper.COLUMN_EPOCH_DAY);
+            int dateIndex = cursor.getColumnIndexOrThrow(InventoryDbHelper.COLUMN_DATE_MODIFIED);
+            int thresholdIndex = cursor.getColumnIndexOrThrow(InventoryDbHelper.COLUMN_MONITORED_THRESHOLD);
+
+            while (cursor.moveToNext()) {
+                String itemName = cursor.getString(nameIndex);
+                Mutation.Type type = Mutation.Type.valueOf(cursor.getString(typeIndex));
+                int value = cursor.getInt(valueIndex);
+                long epochDay = cursor.getLong(epochDayIndex);
+                Item item = type == Mutation.Type.SET
+                        ? new Item(itemName, value, cursor.getString(dateIndex), epochDay,
+                                cursor.getInt(thresholdIndex), locationId)
+                        : null;
+                entries.add(new Mutation(cursor.getLong(seqIndex), type, itemName, item, value, epochDay));
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error reading inventory edit log", e);
+        }
+        return entries;
+    }
+
+    private static ContentValues toValues(Mutation mutation) {
+        ContentValues values = new ContentValues();
+        values.put(InventoryDbHelper.COLUMN_ITEM_NAME, mutation.itemName);
+        values.put(InventoryDbHelper.COLUMN_TYPE, mutation.type.name());
+        values.put(InventoryDbHelper.COLUMN_VALUE, mutation.value);
+        values.put(InventoryDbHelper.COLUMN_EPOCH_DAY, mutation.epochDay);
+        if (mutation.item != null) {
+            values.put(InventoryDbHelper.COLUMN_DATE_MODIFIED, mutation.item.getDate());
+            values.put(InventoryDbHelper.COLUMN_MONITORED_THRESHOLD, mutation.item.getThreshold());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.projectthree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * JVM tests for Mutation.collapse, which merges queued writes for one item
+ */
+public class MutationTest {
+
+    private static final long DAY = 20_000;
+
+    private static Item item(int quantity) {
+        return new Item("bolts", quantity, DAY, 5, "loc");
+    }
+
+    private static Mutation update(int quantity) {
+        return new Mutation(0, Mutation.Type.UPDATE_QUANTITY, "bolts", null, quantity, DAY + 1);
+    }
+
+    private static Mutation adjust(int delta) {
+        return new Mutation(0, Mutation.Type.ADJUST, "bolts", null, delta, DAY + 1);
+    }
+
+    @Test
+    public void laterSetOrDeleteReplacesEarlier() {
+        Mutation set = Mutation.set(item(3));
+        Mutation delete = Mutation.delete("bolts");
+
+        Assert.assertSame(set, Mutation.collapse(adjust(2), set));
+        Assert.assertSame(delete, Mutation.collapse(Mutation.set(item(1)), delete));
+    }
+
+    @Test
+    public void deleteAbsorbsLaterQuantityChanges() {
+        Mutation delete = Mutation.delete("bolts");
+
+        Assert.assertSame(delete, Mutation.collapse(delete, update(4)));
+        Assert.assertSame(delete, Mutation.collapse(delete, adjust(4)));
+    }
+
+    @Test
+    public void quantityUpdateAfterSetKeepsItem() {
+        Mutation collapsed = Mutation.collapse(Mutation.set(item(3)), update(9));
+
+        Assert.assertEquals(Mutation.Type.SET, collapsed.type);
+        Assert.assertEquals(9, collapsed.item.getQuantity());
+        Assert.assertEquals(5, collapsed.item.getThreshold());
+        Assert.assertEquals(DAY + 1, collapsed.epochDay);
+    }
+
+    @Test
+    public void quantityUpdateReplacesAdjust() {
+        Mutation later = update(9);
+
+        Assert.assertSame(later, Mutation.collapse(adjust(2), later));
+    }
+
+    @Test
+    public void adjustAddsToEarlierMutation() {
+        Mutation afterSet = Mutation.collapse(Mutation.set(item(3)), adjust(-1));
+        Assert.assertEquals(Mutation.Type.SET, afterSet.type);
+        Assert.assertEquals(2, afterSet.item.getQuantity());
+
+        Mutation afterUpdate = Mutation.collapse(update(10), adjust(4));
+        Assert.assertEquals(Mutation.Type.UPDATE_QUANTITY, afterUpdate.type);
+        Assert.assertEquals(14, afterUpdate.value);
+        Assert.assertNull(afterUpdate.item);
+
+        Mutation afterAdjust = Mutation.collapse(adjust(2), adjust(-5));
+        Assert.assertEquals(Mutation.Type.ADJUST, afterAdjust.type);
+        Assert.assertEquals(-3, afterAdjust.value);
+        Assert.assertEquals(DAY + 1, afterAdjust.epochDay);
+    }
+
+    @Test
+    public void onlyAdjustLeavesEarlierMutationsRelevant() {
+        Assert.assertFalse(adjust(1).overwritesItem());
+        Assert.assertTrue(update(1).overwritesItem());
+        Assert.assertTrue(Mutation.delete("bolts").overwritesItem());
+        Assert.assertTrue(Mutation.set(item(1)).overwritesItem());
+    }
+}
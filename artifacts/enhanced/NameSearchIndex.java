@@ -0,0 +1,117 @@
+package com.example.projectthree;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * NameSearchIndex answers case-insensitive substring searches on item names
+ * Names are lowercased once when they are added, and every three-character
+ * window of a name (a trigram) maps to the set of names containing it.
+ * A query only checks the names in the smallest posting set among its own trigrams,
+ * confirming each candidate with a substring match, instead of scanning every name.
+ */
+public class NameSearchIndex {
+
+    private final Map<String, String> normalizedNames = new HashMap<>();
+    private final Map<Long, Set<String>> postings = new HashMap<>();
+
+    // The last answered query, reused when the next query extends it
+    private String lastQuery;
+    private Set<String> lastResult;
+
+    /**
+     * Indexes an item name. Names already in the index are left untouched.
+     *
+     * @param itemName - The item name as stored in Firestore
+     */
+    public void add(String itemName) {
+        if (normalizedNames.containsKey(itemName)) return;
+
+        String normalized = normalize(itemName);
+        normalizedNames.put(itemName, normalized);
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            Set<String> names = postings.get(trigram(normalized, i));
+            if (names == null) {
+                names = new HashSet<>();
+                postings.put(trigram(normalized, i), names);
+            }
+            names.add(itemName);
+        }
+        lastQuery = null;
+    }
+
+    /**
+     * Removes an item name and its postings from the index
+     *
+     * @param itemName - The item name as stored in Firestore
+     */
+    public void remove(String itemName) {
+        String normalized = normalizedNames.remove(itemName);
+        if (normalized == null) return;
+
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            Long key = trigram(normalized, i);
+            Set<String> names = postings.get(key);
+            if (names != null && names.remove(itemName) && names.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+        lastQuery = null;
+    }
+
+    /**
+     * Finds every indexed name containing the query, ignoring case.
+     * When the query extends the previous one, only the previous matches are rechecked.
+     *
+     * @param query - Search text entered by user
+     * @return - The matching item names; the set must not be modified
+     */
+    public Set<String> search(String query) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty()) return Collections.unmodifiableSet(normalizedNames.keySet());
+
+        Set<String> candidates = normalizedNames.keySet();
+        if (lastQuery != null && normalizedQuery.contains(lastQuery)) {
+            candidates = lastResult;
+        }
+
+        // Any trigram without postings means no match; otherwise the rarest one bounds the candidates
+        Set<String> smallest = null;
+        for (int i = 0; i + 3 <= normalizedQuery.length(); i++) {
+            Set<String> names = postings.get(trigram(normalizedQuery, i));
+            if (names == null) return remember(normalizedQuery, Collections.<String>emptySet());
+            if (smallest == null || names.size() < smallest.size()) smallest = names;
+        }
+        if (smallest != null && smallest.size() < candidates.size()) {
+            candidates = smallest;
+        }
+
+        Set<String> result = new HashSet<>();
+        for (String itemName : candidates) {
+            if (normalizedNames.get(itemName).contains(normalizedQuery)) {
+                result.add(itemName);
+            }
+        }
+        return remember(normalizedQuery, Collections.unmodifiableSet(result));
+    }
+
+    private Set<String> remember(String normalizedQuery, Set<String> result) {
+        lastQuery = normalizedQuery;
+        lastResult = result;
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32)
+                | ((long) text.charAt(start + 1) << 16)
+                | text.charAt(start + 2);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.projectthree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of per-keystroke search latency while a query is typed one character at a time
+ * Each invocation types every prefix of QUERY, so scores are per keystroke.
+ * scanEveryName is the old filter, which lowercased every name on every keystroke.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NameSearchIndexBenchmark {
+
+    private static final String QUERY = "bolt m12";
+    private static final String[] WORDS = {"bolt", "nut", "washer", "screw", "anchor", "bracket", "hinge", "rivet"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int nameCount;
+
+    private NameSearchIndex index;
+    private List<String> names;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new NameSearchIndex();
+        names = new ArrayList<>(nameCount);
+        for (int i = 0; i < nameCount; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " M" + random.nextInt(24)
+                    + " x" + random.nextInt(300) + " #" + i;
+            names.add(name);
+            index.add(name);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8) // QUERY.length()
+    public void typeQuery(Blackhole blackhole) {
+        for (int end = 1; end <= QUERY.length(); end++) {
+            blackhole.consume(index.search(QUERY.substring(0, end)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8) // QUERY.length()
+    public void scanEveryName(Blackhole blackhole) {
+        for (int end = 1; end <= QUERY.length(); end++) {
+            String query = QUERY.substring(0, end).toLowerCase();
+            List<String> matches = new ArrayList<>();
+            for (String name : names) {
+                if (name.toLowerCase().contains(query)) matches.add(name);
+            }
+            blackhole.consume(matches);
+        }
+    }
+}
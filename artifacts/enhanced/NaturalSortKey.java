@@ -0,0 +1,133 @@
+package com.example.projectthree;
+
+/**
+ * NaturalSortKey orders item names so that runs of digits compare by numeric value
+ * Ensures values like "bin2-shelf10" are correctly ordered before "bin10-shelf2"
+ * and "bin2-shelf2" before "bin2-shelf10"
+ *
+ * The name is split into alternating text and digit segments once, when the key is built.
+ * Comparing two keys walks those segments in place and never allocates,
+ * so a key can be reused by every sort of the item it belongs to.
+ */
+public final class NaturalSortKey implements Comparable<NaturalSortKey> {
+
+    private final String text;
+    // Segment i spans [bounds[i], bounds[i + 1]); segments alternate between text and digits
+    private final int[] bounds;
+    private final boolean startsWithDigit;
+
+    public NaturalSortKey(String text) {
+        this.text = text;
+        this.startsWithDigit = !text.isEmpty() && isDigit(text.charAt(0));
+
+        int segments = text.isEmpty() ? 0 : 1;
+        for (int i = 1; i < text.length(); i++) {
+            if (isDigit(text.charAt(i)) != isDigit(text.charAt(i - 1))) segments++;
+        }
+
+        bounds = new int[segments + 1];
+        int segment = 1;
+        for (int i = 1; i < text.length(); i++) {
+            if (isDigit(text.charAt(i)) != isDigit(text.charAt(i - 1))) bounds[segment++] = i;
+        }
+        bounds[segments] = text.length();
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Compares segment by segment. Digit segments compare by numeric value of any length,
+     * text segments compare character by character. Names that are still equal
+     * (such as "a01" and "a1") fall back to plain string order so the result is total.
+     */
+    @Override
+    public int compareTo(NaturalSortKey other) {
+        int count = Math.min(segmentCount(), other.segmentCount());
+
+        for (int i = 0; i < count; i++) {
+            boolean digits = isDigitSegment(i);
+            int start = bounds[i];
+            int otherStart = other.bounds[i];
+
+            if (digits != other.isDigitSegment(i)) {
+                return Character.compare(text.charAt(start), other.text.charAt(otherStart));
+            }
+
+            int result = digits
+                    ? compareDigits(start, bounds[i + 1], other, otherStart, other.bounds[i + 1])
+                    : compareText(start, bounds[i + 1], other, otherStart, other.bounds[i + 1]);
+            if (result != 0) return result;
+        }
+
+        if (segmentCount() != other.segmentCount()) {
+            return segmentCount() - other.segmentCount();
+        }
+        return text.compareTo(other.text);
+    }
+
+    private int compareText(int start, int end, NaturalSortKey other, int otherStart, int otherEnd) {
+        int length = end - start;
+        int otherLength = otherEnd - otherStart;
+
+        for (int i = 0; i < Math.min(length, otherLength); i++) {
+            char a = text.charAt(start + i);
+            char b = other.text.charAt(otherStart + i);
+            if (a != b) return a - b;
+        }
+        if (length == otherLength) return 0;
+
+        // One segment is a prefix of the other; compare what follows it, as plain string order would
+        if (length < otherLength) {
+            if (end == text.length()) return -1;
+            return Character.compare(text.charAt(end), other.text.charAt(otherStart + length));
+        }
+        if (otherEnd == other.text.length()) return 1;
+        return Character.compare(text.charAt(start + otherLength), other.text.charAt(otherEnd));
+    }
+
+    private int compareDigits(int start, int end, NaturalSortKey other, int otherStart, int otherEnd) {
+        // Skip leading zeros, so the significant lengths decide magnitude
+        while (start < end - 1 && text.charAt(start) == '0') start++;
+        while (otherStart < otherEnd - 1 && other.text.charAt(otherStart) == '0') otherStart++;
+
+        int length = end - start;
+        int otherLength = otherEnd - otherStart;
+        if (length != otherLength) return length - otherLength;
+
+        for (int i = 0; i < length; i++) {
+            char a = text.charAt(start + i);
+            char b = other.text.charAt(otherStart + i);
+            if (a != b) return a - b;
+        }
+        return 0;
+    }
+
+    private int segmentCount() {
+        return bounds.length - 1;
+    }
+
+    private boolean isDigitSegment(int segment) {
+        return (segment % 2 == 0) == startsWithDigit;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof NaturalSortKey && text.equals(((NaturalSortKey) o).text);
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.projectthree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JMH comparison of sorting item names by NaturalSortKey against the regex key
+ * the inventory screen used to build on both sides of every comparison
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NaturalSortKeyBenchmark {
+
+    @Param({"100000"})
+    public int nameCount;
+
+    private String[] names;
+    private NaturalSortKey[] keys;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        names = new String[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            switch (i % 3) {
+                case 0:
+                    names[i] = "item" + random.nextInt(nameCount);
+                    break;
+                case 1:
+                    names[i] = "bin" + random.nextInt(100) + "-shelf" + random.nextInt(50);
+                    break;
+                default:
+                    names[i] = "Bolt M" + random.nextInt(20) + " x " + random.nextInt(200) + "mm";
+                    break;
+            }
+        }
+        keys = new NaturalSortKey[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            keys[i] = new NaturalSortKey(names[i]);
+        }
+    }
+
+    /**
+     * Keys built when items enter the store, so a sort only compares them
+     */
+    @Benchmark
+    public NaturalSortKey[] precomputedKeys() {
+        NaturalSortKey[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Builds every key and then sorts, the cost of the first sort after a full load
+     */
+    @Benchmark
+    public NaturalSortKey[] keysBuiltThenSorted() {
+        NaturalSortKey[] sorted = new NaturalSortKey[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            sorted[i] = new NaturalSortKey(names[i]);
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * The previous comparator, which rebuilt the regex key on both sides of every comparison
+     */
+    @Benchmark
+    public String[] regexPerComparison() {
+        String[] sorted = names.clone();
+        Arrays.sort(sorted, Comparator.comparing(NaturalSortKeyBenchmark::extractNaturalKey));
+        return sorted;
+    }
+
+    /**
+     * The previous key, kept here as the baseline; it only handles a single trailing number
+     */
+    private static String extractNaturalKey(String input) {
+        Pattern pattern = Pattern.compile("(\\D*)(\\d+)");
+        Matcher matcher = pattern.matcher(input);
+        if (matcher.matches()) {
+            String prefix = matcher.group(1);
+            int number = Integer.parseInt(matcher.group(2));
+            return String.format("%s%010d", prefix, number);
+        }
+        return input;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.projectthree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JVM tests for NaturalSortKey ordering
+ */
+public class NaturalSortKeyTest {
+
+    private static int compare(String a, String b) {
+        return Integer.signum(new NaturalSortKey(a).compareTo(new NaturalSortKey(b)));
+    }
+
+    @Test
+    public void digitRunsCompareByValue() {
+        Assert.assertEquals(-1, compare("bin2-shelf10", "bin10-shelf2"));
+        Assert.assertEquals(-1, compare("bin2-shelf2", "bin2-shelf10"));
+        Assert.assertEquals(1, compare("item100", "item99"));
+    }
+
+    @Test
+    public void longDigitRunsDoNotOverflow() {
+        Assert.assertEquals(-1, compare("x99999999999999999999", "x100000000000000000000"));
+    }
+
+    @Test
+    public void equalValuesFallBackToStringOrder() {
+        Assert.assertEquals(Integer.signum("a01".compareTo("a1")), compare("a01", "a1"));
+        Assert.assertEquals(0, compare("a1", "a1"));
+    }
+
+    @Test
+    public void prefixSortsFirst() {
+        Assert.assertEquals(-1, compare("bolt", "bolts"));
+        Assert.assertEquals(-1, compare("", "a"));
+        Assert.assertEquals(-1, compare("a1", "a1b"));
+    }
+
+    @Test
+    public void sortsMixedNames() {
+        List<String> expected = Arrays.asList("a", "a2", "a10", "b1", "b1c", "b01d");
+        List<String> names = new ArrayList<>(expected);
+        Collections.reverse(names);
+
+        List<NaturalSortKey> keys = new ArrayList<>();
+        for (String name : names) keys.add(new NaturalSortKey(name));
+        Collections.sort(keys);
+
+        List<String> sorted = new ArrayList<>();
+        for (NaturalSortKey key : keys) sorted.add(key.getText());
+        Assert.assertEquals(expected, sorted);
+    }
+}
@@ -11,16 +11,19 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * NotificationsActivity allows the user to monitor specific items by setting quantity thresholds
  * If the item quantity falls below the threshold, an SMS will be sent to the user's phone number
  * Users can add or remove monitored items from their personal Firestore subcollection
+ * The list is read from the location's shared inventory, whose thresholds are already
+ * kept in sync, and is redrawn once after each burst of threshold changes.
  */
 public class NotificationsActivity extends AppCompatActivity {
 
@@ -31,6 +34,8 @@ public class NotificationsActivity extends AppCompatActivity {
 
     private FirebaseFirestore db;
     private String userId;
+    private LocationInventory inventory;
+    private boolean refreshPosted;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -41,6 +46,15 @@ public class NotificationsActivity extends AppCompatActivity {
         db = FirebaseFirestore.getInstance();
         userId = FirebaseAuth.getInstance().getCurrentUser().getUid();
 
+        String locationId = new LocationManager(this).getStoredLocationId();
+        if (locationId == null) {
+            Toast.makeText(this, "Location not set. Please log in again", Toast.LENGTH_LONG).show();
+            finish();
+            return;
+        }
+        inventory = LocationInventory.get(this, locationId);
+        SnapshotListenerRegistry.bind(this, inventory.observeThresholds((itemName, threshold) -> scheduleRefresh()));
+
         loadMonitoredItems();
 
         addMonitoredItemButton.setOnClickListener(v -> addMonitoredItem());
@@ -77,54 +91,60 @@ public class NotificationsActivity extends AppCompatActivity {
             return;
         }
 
-        db.collection("users").document(userId)
+        if (inventory.getThresholds().containsKey(itemName)) {
+            Toast.makeText(this, "This item is already being monitored", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // The cached thresholds may not have loaded yet, so the server decides before anything is overwritten
+        DocumentReference notificationRef = db.collection("users")
+                .document(userId)
                 .collection("notifications")
-                .document(itemName)
-                .get()
+                .document(itemName);
+        notificationRef.get()
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
                         Toast.makeText(this, "This item is already being monitored", Toast.LENGTH_SHORT).show();
-                    } else {
-                        Map<String, Object> data = Collections.singletonMap("threshold", threshold);
-                        db.collection("users")
-                                .document(userId)
-                                .collection("notifications")
-                                .document(itemName)
-                                .set(data)
-                                .addOnSuccessListener(unused -> {
-                                    Toast.makeText(this, "Monitoring set for " + itemName, Toast.LENGTH_SHORT).show();
-                                    itemNameEditText.setText("");
-                                    thresholdEditText.setText("");
-                                    loadMonitoredItems(); // Refresh list
-                                })
-                                .addOnFailureListener(e -> {
-                                    Toast.makeText(this, "Failed to monitor item: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                                });
+                        return;
                     }
+
+                    Map<String, Object> data = Collections.singletonMap("threshold", threshold);
+                    notificationRef.set(data)
+                            .addOnSuccessListener(unused -> {
+                                Toast.makeText(this, "Monitoring set for " + itemName, Toast.LENGTH_SHORT).show();
+                                itemNameEditText.setText("");
+                                thresholdEditText.setText("");
+                            })
+                            .addOnFailureListener(e -> {
+                                Toast.makeText(this, "Failed to monitor item: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    Toast.makeText(this, "Failed to monitor item: " + e.getMessage(), Toast.LENGTH_LONG).show();
                 });
     }
 
     /**
-     * Loads all monitored items from Firestore and displays them in the UI
+     * Redraws the list once the current burst of threshold changes has been delivered
+     */
+    private void scheduleRefresh() {
+        if (refreshPosted) return;
+        refreshPosted = true;
+        monitoredItemsLayout.post(() -> {
+            refreshPosted = false;
+            loadMonitoredItems();
+        });
+    }
+
+    /**
+     * Displays all monitored items, in name order, from the thresholds already held in memory
      */
     private void loadMonitoredItems() {
         monitoredItemsLayout.removeAllViews();
 
-        db.collection("users").document(userId)
-                .collection("notifications")
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                        String itemName = doc.getId();
-                        Long threshold = doc.getLong("threshold");
-                        if (threshold != null) {
-                            addMonitoredItemToLayout(itemName, threshold.intValue());
-                        }
-                    }
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Failed to load monitored items", Toast.LENGTH_SHORT).show()
-                );
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(inventory.getThresholds()).entrySet()) {
+            addMonitoredItemToLayout(entry.getKey(), entry.getValue());
+        }
     }
 
     /**
@@ -164,10 +184,8 @@ public class NotificationsActivity extends AppCompatActivity {
                     .collection("notifications")
                     .document(itemName)
                     .delete()
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(this, "Removed " + itemName, Toast.LENGTH_SHORT).show();
-                        loadMonitoredItems();
-                    })
+                    .addOnSuccessListener(aVoid ->
+                            Toast.makeText(this, "Removed " + itemName, Toast.LENGTH_SHORT).show())
                     .addOnFailureListener(e ->
                             Toast.makeText(this, "Error removing item", Toast.LENGTH_SHORT).show());
         });
@@ -0,0 +1,20 @@
+package com.example.projectthree;
+
+import java.util.Map;
+
+/**
+ * Persists low-stock alerts that have been queued but not yet sent,
+ * so they survive process death. Keyed by recipient phone number,
+ * then by item name, with the latest reported quantity as the value.
+ * Also persists when each recipient was last sent a message, so the
+ * minimum interval between messages holds across restarts.
+ */
+public interface PendingAlertStore {
+    Map<String, Map<String, Integer>> load();
+
+    void save(Map<String, Map<String, Integer>> pending);
+
+    Map<String, Long> loadLastSent();
+
+    void saveLastSent(Map<String, Long> lastSentAt);
+}
@@ -0,0 +1,40 @@
+package com.example.projectthree;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * AlertStateStore that keeps one location's LOW items, per user, as a string set in SharedPreferences
+ */
+public class PrefsAlertStateStore implements AlertStateStore {
+
+    private static final String PREFS_NAME = "AlertStatePrefs";
+
+    private final SharedPreferences prefs;
+    private final String key;
+
+    /**
+     * @param context - Used to open the preferences
+     * @param locationId - The location whose items are monitored
+     * @param userId - The user whose thresholds they are monitored against
+     */
+    public PrefsAlertStateStore(Context context, String locationId, String userId) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        key = "lowItems_" + locationId + "_" + userId;
+    }
+
+    @Override
+    public Set<String> loadLowItems() {
+        // The returned set must not be modified, so copy it
+        return new HashSet<>(prefs.getStringSet(key, Collections.emptySet()));
+    }
+
+    @Override
+    public void saveLowItems(Set<String> lowItems) {
+        prefs.edit().putStringSet(key, new HashSet<>(lowItems)).apply();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.projectthree;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PendingAlertStore that keeps pending alerts as a JSON string in SharedPreferences
+ */
+public class PrefsPendingAlertStore implements PendingAlertStore {
+
+    private static final String TAG = "PrefsPendingAlertStore";
+    private static final String PREFS_NAME = "AlertQueuePrefs";
+    private static final String PENDING_KEY = "pendingAlerts";
+    private static final String LAST_SENT_KEY = "lastSentAt";
+
+    private final SharedPreferences prefs;
+
+    public PrefsPendingAlertStore(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public Map<String, Map<String, Integer>> load() {
+        Map<String, Map<String, Integer>> pending = new LinkedHashMap<>();
+        String json = prefs.getString(PENDING_KEY, null);
+        if (json == null) return pending;
+
+        try {
+            JSONObject recipients = new JSONObject(json);
+            for (Iterator<String> phones = recipients.keys(); phones.hasNext(); ) {
+                String phone = phones.next();
+                JSONObject items = recipients.getJSONObject(phone);
+                Map<String, Integer> quantities = new LinkedHashMap<>();
+                for (Iterator<String> names = items.keys(); names.hasNext(); ) {
+                    String itemName = names.next();
+                    quantities.put(itemName, items.getInt(itemName));
+                }
+                pending.put(phone, quantities);
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Discarding unreadable pending alerts", e);
+        }
+        return pending;
+    }
+
+    @Override
+    public void save(Map<String, Map<String, Integer>> pending) {
+        try {
+            JSONObject recipients = new JSONObject();
+            for (Map.Entry<String, Map<String, Integer>> recipient : pending.entrySet()) {
+                JSONObject items = new JSONObject();
+                for (Map.Entry<String, Integer> item : recipient.getValue().entrySet()) {
+                    items.put(item.getKey(), item.getValue().intValue());
+                }
+                recipients.put(recipient.getKey(), items);
+            }
+            prefs.edit().putString(PENDING_KEY, recipients.toString()).apply();
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to save pending alerts", e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> loadLastSent() {
+        Map<String, Long> lastSentAt = new LinkedHashMap<>();
+        String json = prefs.getString(LAST_SENT_KEY, null);
+        if (json == null) return lastSentAt;
+
+        try {
+            JSONObject recipients = new JSONObject(json);
+            for (Iterator<String> phones = recipients.keys(); phones.hasNext(); ) {
+                String phone = phones.next();
+                lastSentAt.put(phone, recipients.getLong(phone));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Discarding unreadable send times", e);
+        }
+        return lastSentAt;
+    }
+
+    @Override
+    public void saveLastSent(Map<String, Long> lastSentAt) {
+        try {
+            JSONObject recipients = new JSONObject();
+            for (Map.Entry<String, Long> recipient : lastSentAt.entrySet()) {
+                recipients.put(recipient.getKey(), recipient.getValue().longValue());
+            }
+            prefs.edit().putString(LAST_SENT_KEY, recipients.toString()).apply();
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to save send times", e);
+        }
+    }
+}
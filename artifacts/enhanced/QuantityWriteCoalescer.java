@@ -0,0 +1,126 @@
+package com.example.projectthree;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QuantityWriteCoalescer merges rapid quantity updates to the same item into one write
+ * The first update to an item opens a short window; later updates in that window replace
+ * its value, and only the final value is written when the window closes. Every caller's
+ * future completes when that merged write commits. Each absorbed update is counted in
+ * InventoryMetrics as a saved write.
+ * Other writes to an item must flush() it first, so they are applied after its pending value.
+ * Must be used from the main thread.
+ */
+public class QuantityWriteCoalescer {
+
+    /**
+     * Performs the actual quantity write for an item
+     */
+    public interface Writer {
+        Task<Void> write(String itemName, int quantity);
+    }
+
+    private final Writer writer;
+    private final long windowMs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, PendingWrite> pending = new HashMap<>();
+
+    private final AtomicLong updatesRequested = new AtomicLong();
+    private final AtomicLong writesIssued = new AtomicLong();
+
+    /**
+     * @param writer - Writes the merged value of an item
+     * @param windowMs - How long to wait for further updates to the same item
+     */
+    public QuantityWriteCoalescer(Writer writer, long windowMs) {
+        this.writer = writer;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Queues a quantity update, replacing any update still pending for the item
+     *
+     * @param itemName - The item to update
+     * @param quantity - The new absolute quantity
+     * @return - A future that completes when the merged write for this item commits
+     */
+    public CompletableFuture<Void> update(String itemName, int quantity) {
+        updatesRequested.incrementAndGet();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingWrite write = pending.get(itemName);
+        if (write == null) {
+            write = new PendingWrite(() -> flush(itemName));
+            pending.put(itemName, write);
+            mainHandler.postDelayed(write.flush, windowMs);
+        } else {
+            InventoryMetrics.increment(InventoryMetrics.Counter.WRITES_SAVED);
+        }
+        write.quantity = quantity;
+        write.waiters.add(future);
+        return future;
+    }
+
+    /**
+     * @return - Total updates requested by callers
+     */
+    public long getUpdatesRequested() {
+        return updatesRequested.get();
+    }
+
+    /**
+     * @return - Writes actually sent to Firestore
+     */
+    public long getWritesIssued() {
+        return writesIssued.get();
+    }
+
+    /**
+     * @return - Updates that were absorbed into a later write
+     */
+    public long getWritesSaved() {
+        return updatesRequested.get() - writesIssued.get();
+    }
+
+    /**
+     * Writes the item's pending value now, if it has one, instead of when its window closes
+     *
+     * @param itemName - The item about to be written another way
+     */
+    public void flush(String itemName) {
+        PendingWrite write = pending.remove(itemName);
+        if (write == null) return;
+        mainHandler.removeCallbacks(write.flush);
+
+        writesIssued.incrementAndGet();
+        writer.write(itemName, write.quantity).addOnCompleteListener(task -> {
+            for (CompletableFuture<Void> waiter : write.waiters) {
+                if (task.isSuccessful()) {
+                    waiter.complete(null);
+                } else {
+                    waiter.completeExceptionally(task.getException());
+                }
+            }
+        });
+    }
+
+    private static class PendingWrite {
+        final Runnable flush;
+        int quantity;
+        final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+
+        PendingWrite(Runnable flush) {
+            this.flush = flush;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.projectthree;
+
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * RetryPolicy bounds how long an operation may take and how it is retried
+ * Each attempt has its own timeout and the whole call has a deadline. Between attempts the
+ * policy waits a random time up to an exponentially growing cap ("full jitter"), so clients
+ * that failed together do not all retry together. Only use it for idempotent operations.
+ */
+public final class RetryPolicy {
+
+    /**
+     * Suits interactive reads: 4 attempts within 30s, 10s per attempt, backoff from 200ms to 5s
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(4, 200, 5_000, 10_000, 30_000,
+            RetryPolicy::isTransientFirestoreError);
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long attemptTimeoutMs;
+    private final long deadlineMs;
+    private final Predicate<Throwable> retryable;
+
+    /**
+     * @param maxAttempts - Attempts in total, including the first
+     * @param initialBackoffMs - Cap on the wait before the second attempt; doubles for each later one
+     * @param maxBackoffMs - Largest cap on any single wait
+     * @param attemptTimeoutMs - Time allowed for each attempt
+     * @param deadlineMs - Time allowed for the whole call, across every attempt and wait
+     * @param retryable - Decides which failures are worth another attempt
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoffMs, long maxBackoffMs,
+                       long attemptTimeoutMs, long deadlineMs, Predicate<Throwable> retryable) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.attemptTimeoutMs = attemptTimeoutMs;
+        this.deadlineMs = deadlineMs;
+        this.retryable = retryable;
+    }
+
+    /**
+     * @return - A copy of this policy with a different overall deadline
+     */
+    public RetryPolicy withDeadline(long deadlineMs) {
+        return new RetryPolicy(maxAttempts, initialBackoffMs, maxBackoffMs,
+                Math.min(attemptTimeoutMs, deadlineMs), deadlineMs, retryable);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getAttemptTimeoutMs() {
+        return attemptTimeoutMs;
+    }
+
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    public boolean isRetryable(Throwable error) {
+        return retryable.test(error);
+    }
+
+    /**
+     * @param failedAttempts - Attempts made so far, at least 1
+     * @return - A random wait in [0, cap], where the cap doubles with each failed attempt
+     */
+    public long backoffMs(int failedAttempts) {
+        long cap = initialBackoffMs << Math.min(failedAttempts - 1, 20);
+        return ThreadLocalRandom.current().nextLong(Math.min(cap, maxBackoffMs) + 1);
+    }
+
+    /**
+     * Failures that another attempt may not hit: the service being unreachable or overloaded,
+     * a contended transaction, or an attempt that ran out of time
+     */
+    public static boolean isTransientFirestoreError(Throwable error) {
+        if (error instanceof TimeoutException) return true;
+        if (!(error instanceof FirebaseFirestoreException)) return false;
+
+        switch (((FirebaseFirestoreException) error).getCode()) {
+            case UNAVAILABLE:
+            case DEADLINE_EXCEEDED:
+            case ABORTED:
+            case RESOURCE_EXHAUSTED:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.projectthree;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * ShardedCounterCache keeps the summed quantity of every sharded item in the inventory
+ *
+ * A sharded item spreads its quantity over inventory/{itemName}/shards/{0..n-1}, each holding
+ * a 'count'. Its quantity is the item's own quantity field plus every shard's count, so a write
+ * sent to the item document before the writer knew it was sharded still counts. This cache
+ * attaches one listener per sharded item to its shards, keeps the sum, and adds it to the
+ * item's quantity field, so the list view reads one cached value instead of summing shards
+ * itself. Listener callbacks run on the given executor, which must be the same single thread
+ * that delivers item snapshots.
+ */
+class ShardedCounterCache {
+
+    private static final String TAG = "ShardedCounterCache";
+
+    /**
+     * Receives a sharded item again whenever its summed quantity changes
+     */
+    interface Listener {
+        void onAggregateChanged(Item item);
+    }
+
+    private final CollectionReference itemsRef;
+    private final Executor executor;
+    private final Listener listener;
+
+    // Read from any thread to spread writes over the shards
+    private final Map<String, Integer> shardCounts = new ConcurrentHashMap<>();
+    // Only touched on the executor thread
+    private final Map<String, Tracked> tracked = new HashMap<>();
+
+    ShardedCounterCache(CollectionReference itemsRef, Executor executor, Listener listener) {
+        this.itemsRef = itemsRef;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    /**
+     * @return - The item's shard count, or 0 if it is not sharded or has not been seen yet
+     */
+    int getShardCount(String itemName) {
+        Integer shards = shardCounts.get(itemName);
+        return shards != null ? shards : 0;
+    }
+
+    /**
+     * Records the shard count of an item read outside of a snapshot, e.g. by a query for sharded
+     * items or a promotion that just committed; a count already known from a snapshot is kept
+     * Must be called on the executor thread.
+     */
+    void onShardCountLoaded(String itemName, int shards) {
+        if (!tracked.containsKey(itemName)) shardCounts.put(itemName, shards);
+    }
+
+    /**
+     * Records a freshly decoded item, starting or stopping shard tracking as needed
+     * A sharded item is held back until its shards' first snapshot arrives, and then reported
+     * to the listener, so its quantity is never shown without the shards.
+     *
+     * @param item - The item decoded from its inventory document
+     * @return - The item, with the shard sum added to its quantity, or null while the sum is unknown
+     */
+    Item onItemDecoded(Item item) {
+        String itemName = item.getItemName();
+        Tracked entry = tracked.get(itemName);
+
+        if (item.getShardCount() == 0) {
+            if (entry != null) untrack(itemName);
+            shardCounts.remove(itemName);
+            return item;
+        }
+
+        shardCounts.put(itemName, item.getShardCount());
+        if (entry == null) {
+            entry = new Tracked();
+            tracked.put(itemName, entry);
+            Tracked listening = entry;
+            entry.registration = itemsRef.document(itemName).collection("shards")
+                    .addSnapshotListener(executor, (shards, error) -> {
+                        if (error != null) {
+                            Log.e(TAG, "Shard listener failed for " + itemName, error);
+                            return;
+                        }
+                        if (shards == null || tracked.get(itemName) != listening) return;
+
+                        long sum = sumOf(shards);
+                        listening.sum = sum;
+                        if (listening.item != null) {
+                            listener.onAggregateChanged(withSum(listening.item, sum));
+                        }
+                    });
+        }
+        entry.item = item;
+        return entry.sum != null ? withSum(item, entry.sum) : null;
+    }
+
+    /**
+     * Adds the cached shard sum without starting to track the item
+     * Used for one-off reads; must be called on the executor thread.
+     *
+     * @return - The item, with the shard sum added to its quantity; null if it is sharded
+     *           and no sum is cached, in which case the caller has to read its shards
+     */
+    Item applyCachedSum(Item item) {
+        if (item.getShardCount() == 0) return item;
+        Tracked entry = tracked.get(item.getItemName());
+        return entry != null && entry.sum != null ? withSum(item, entry.sum) : null;
+    }
+
+    /**
+     * Stops tracking a removed item
+     */
+    void onItemRemoved(String itemName) {
+        if (tracked.containsKey(itemName)) untrack(itemName);
+        shardCounts.remove(itemName);
+    }
+
+    /**
+     * Stops tracking every item, detaching their shard listeners
+     * Shard counts are kept, so writes still go to the shards while nothing is listening.
+     */
+    void clear() {
+        for (Tracked entry : tracked.values()) {
+            entry.registration.remove();
+        }
+        tracked.clear();
+    }
+
+    private void untrack(String itemName) {
+        tracked.remove(itemName).registration.remove();
+    }
+
+    /**
+     * @param shards - A snapshot of an item's shards subcollection
+     * @return - The sum of their counts
+     */
+    static long sumOf(QuerySnapshot shards) {
+        long sum = 0;
+        for (DocumentSnapshot shard : shards) {
+            Long count = shard.getLong("count");
+            if (count != null) sum += count;
+        }
+        return sum;
+    }
+
+    /**
+     * @return - The item with its shards' counts added to its own quantity field
+     */
+    static Item withSum(Item item, long shardSum) {
+        return item.withQuantity((int) (item.getQuantity() + shardSum));
+    }
+
+    private static class Tracked {
+        ListenerRegistration registration;
+        Item item;
+        Long sum;
+    }
+}
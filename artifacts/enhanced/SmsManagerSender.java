@@ -0,0 +1,23 @@
+package com.example.projectthree;
+
+import android.telephony.SmsManager;
+
+import java.util.ArrayList;
+
+/**
+ * SmsSender backed by the platform SmsManager
+ * Messages longer than one SMS are split and sent as a multipart message.
+ */
+public class SmsManagerSender implements SmsSender {
+
+    @Override
+    public void sendText(String phoneNumber, String message) {
+        SmsManager smsManager = SmsManager.getDefault();
+        ArrayList<String> parts = smsManager.divideMessage(message);
+        if (parts.size() == 1) {
+            smsManager.sendTextMessage(phoneNumber, null, message, null, null);
+        } else {
+            smsManager.sendMultipartTextMessage(phoneNumber, null, parts, null, null);
+        }
+    }
+}
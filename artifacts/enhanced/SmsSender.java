@@ -0,0 +1,11 @@
+package com.example.projectthree;
+
+/**
+ * Sends a text message to a phone number
+ * Implementations throw a RuntimeException if the message could not be handed off:
+ * SecurityException or IllegalArgumentException when retrying cannot help, such as a revoked
+ * SEND_SMS permission or an invalid number, and any other RuntimeException for transient failures.
+ */
+public interface SmsSender {
+    void sendText(String phoneNumber, String message);
+}
@@ -0,0 +1,199 @@
+package com.example.projectthree;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * SnapshotListenerRegistry shares Firestore snapshot listeners between consumers of the same query
+ *
+ * Consumers registered under the same key share one underlying listener, attached by the first
+ * of them. A consumer joining a listener that is already running is handed its latest snapshot
+ * first, so it starts from the same state as one that was there from the beginning.
+ * When the last consumer leaves, the listener is kept for a grace period, so a recreated screen
+ * picks it up again instead of re-reading the query; after that it is detached.
+ * A listener that fails is detached at once: every consumer receives the error and is removed,
+ * and the next consumer to register attaches a new listener.
+ */
+final class SnapshotListenerRegistry {
+
+    private static final String TAG = "ListenerRegistry";
+
+    // Long enough to cover a configuration change or a quick back-and-forth between screens
+    static final long GRACE_PERIOD_MS = 5_000;
+
+    /**
+     * Attaches the underlying listener of a shared query
+     */
+    interface Source<T> {
+        ListenerRegistration attach(Executor executor, EventListener<T> listener);
+    }
+
+    private static SnapshotListenerRegistry instance;
+
+    private final Map<String, Shared<?>> shared = new HashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    static synchronized SnapshotListenerRegistry getInstance() {
+        if (instance == null) {
+            instance = new SnapshotListenerRegistry();
+        }
+        return instance;
+    }
+
+    private SnapshotListenerRegistry() {}
+
+    /**
+     * Adds a consumer to the listener registered under key, attaching it if there is none
+     * Every consumer of a key must pass the same executor, which must run one task at a time,
+     * in order; events and the replayed latest snapshot are delivered on it.
+     *
+     * @param key - Identifies the query, e.g. its path and metadata option
+     * @param executor - Runs the underlying listener's callbacks
+     * @param source - Attaches the underlying listener, if it is not attached yet
+     * @param listener - Receives the latest snapshot, if any, then every later event
+     * @return - The consumer's subscription
+     */
+    <T> InventoryRepository.Subscription register(String key, Executor executor, Source<T> source,
+                                                   EventListener<T> listener) {
+        Consumer<T> consumer = new Consumer<>(listener);
+        Shared<T> entry;
+        synchronized (this) {
+            @SuppressWarnings("unchecked")
+            Shared<T> existing = (Shared<T>) shared.get(key);
+            entry = existing;
+            if (entry == null) {
+                entry = new Shared<>(key);
+                entry.consumers.add(consumer);
+                shared.put(key, entry);
+                entry.registration = source.attach(executor, entry::dispatch);
+                Log.d(TAG, "Attached " + key + " (" + shared.size() + " attached)");
+            } else {
+                mainHandler.removeCallbacks(entry.detach);
+                entry.consumers.add(consumer);
+            }
+        }
+
+        Shared<T> joined = entry;
+        executor.execute(() -> joined.replay(consumer));
+        return () -> release(joined, consumer);
+    }
+
+    /**
+     * Removes the subscription when the owner is destroyed, or right away if it already was
+     * Call on the main thread.
+     *
+     * @param owner - The screen or other lifecycle the listener belongs to
+     * @param subscription - The listener's subscription
+     * @return - The same subscription, for removing it earlier
+     */
+    static InventoryRepository.Subscription bind(LifecycleOwner owner, InventoryRepository.Subscription subscription) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            subscription.remove();
+            return subscription;
+        }
+
+        lifecycle.addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+                if (event != Lifecycle.Event.ON_DESTROY) return;
+                source.getLifecycle().removeObserver(this);
+                subscription.remove();
+            }
+        });
+        return subscription;
+    }
+
+    private void release(Shared<?> entry, Consumer<?> consumer) {
+        consumer.removed = true;
+        synchronized (this) {
+            if (!entry.consumers.remove(consumer)) return;
+            if (entry.consumers.isEmpty() && shared.get(entry.key) == entry) {
+                mainHandler.postDelayed(entry.detach, GRACE_PERIOD_MS);
+            }
+        }
+    }
+
+    private synchronized void detach(Shared<?> entry, boolean onlyIfUnused) {
+        if (shared.get(entry.key) != entry) return;
+        if (onlyIfUnused && !entry.consumers.isEmpty()) return;
+
+        shared.remove(entry.key);
+        entry.registration.remove();
+        Log.d(TAG, "Detached " + entry.key + " (" + shared.size() + " attached)");
+    }
+
+    /**
+     * One underlying listener and the consumers sharing it
+     */
+    private class Shared<T> {
+        final String key;
+        final List<Consumer<T>> consumers = new CopyOnWriteArrayList<>();
+        final Runnable detach = () -> detach(this, true);
+        ListenerRegistration registration;
+        T latest; // Only touched on the listener's executor
+
+        Shared(String key) {
+            this.key = key;
+        }
+
+        void dispatch(T value, FirebaseFirestoreException error) {
+            if (error == null) {
+                latest = value;
+                for (Consumer<T> consumer : consumers) {
+                    consumer.deliver(value, null);
+                }
+                return;
+            }
+
+            // Firestore retries transient failures itself, so a failed listener receives no more
+            // events. Detach it first, so a consumer that registers again gets a new one.
+            List<Consumer<T>> failed;
+            synchronized (SnapshotListenerRegistry.this) {
+                detach(this, false);
+                failed = new ArrayList<>(consumers);
+                consumers.clear();
+            }
+            for (Consumer<T> consumer : failed) {
+                consumer.deliver(null, error);
+                consumer.removed = true;
+            }
+        }
+
+        void replay(Consumer<T> consumer) {
+            if (!consumer.started && latest != null) consumer.deliver(latest, null);
+        }
+    }
+
+    private static class Consumer<T> {
+        final EventListener<T> listener;
+        volatile boolean removed;
+        boolean started; // Only touched on the listener's executor
+
+        Consumer(EventListener<T> listener) {
+            this.listener = listener;
+        }
+
+        void deliver(T value, FirebaseFirestoreException error) {
+            if (removed) return;
+            started = true;
+            listener.onEvent(value, error);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.projectthree;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.LooperMode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Robolectric tests that screens recreated again and again share one underlying listener,
+ * and that it is detached once the grace period passes with no screen left
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class SnapshotListenerRegistryTest {
+
+    private static final int CYCLES = 50;
+
+    private final SnapshotListenerRegistry registry = SnapshotListenerRegistry.getInstance();
+
+    @Test
+    public void listenerCountStaysConstantAcrossRecreates() {
+        FakeSource source = new FakeSource();
+        String key = "recreate:" + System.nanoTime();
+        List<String> received = new ArrayList<>();
+
+        for (int cycle = 0; cycle < CYCLES; cycle++) {
+            ScreenOwner screen = new ScreenOwner();
+            SnapshotListenerRegistry.bind(screen, registry.<String>register(key, Runnable::run, source,
+                    (value, error) -> received.add(value)));
+            source.emit("snapshot " + cycle);
+
+            Assert.assertEquals(1, source.attached);
+            Assert.assertEquals(1, source.live);
+            screen.destroy();
+            // A rotation creates the next screen well inside the grace period
+            Shadows.shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+        }
+
+        Assert.assertEquals(1, source.attached);
+        Assert.assertEquals(1, source.live);
+        // Each new screen is first handed the previous snapshot, then gets its own
+        Assert.assertEquals(CYCLES * 2 - 1, received.size());
+
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(SnapshotListenerRegistry.GRACE_PERIOD_MS));
+        Assert.assertEquals(0, source.live);
+    }
+
+    @Test
+    public void screensOpenedAfterGracePeriodNeverStackListeners() {
+        FakeSource source = new FakeSource();
+        String key = "reopen:" + System.nanoTime();
+
+        for (int cycle = 0; cycle < CYCLES; cycle++) {
+            ScreenOwner screen = new ScreenOwner();
+            SnapshotListenerRegistry.bind(screen, registry.<String>register(key, Runnable::run, source,
+                    (value, error) -> {}));
+            Assert.assertEquals(1, source.live);
+
+            screen.destroy();
+            Shadows.shadowOf(Looper.getMainLooper())
+                    .idleFor(Duration.ofMillis(SnapshotListenerRegistry.GRACE_PERIOD_MS + 1));
+            Assert.assertEquals(0, source.live);
+        }
+        Assert.assertEquals(CYCLES, source.attached);
+    }
+
+    /**
+     * Stands in for a Firestore query, counting the listeners attached to it
+     */
+    private static class FakeSource implements SnapshotListenerRegistry.Source<String> {
+        int attached;
+        int live;
+        private EventListener<String> listener;
+
+        @Override
+        public ListenerRegistration attach(Executor executor, EventListener<String> listener) {
+            attached++;
+            live++;
+            this.listener = listener;
+            return () -> live--;
+        }
+
+        void emit(String value) {
+            listener.onEvent(value, null);
+        }
+    }
+
+    /**
+     * A screen's lifecycle, resumed on creation
+     */
+    private static class ScreenOwner implements LifecycleOwner {
+        private final LifecycleRegistry lifecycle = new LifecycleRegistry(this);
+
+        ScreenOwner() {
+            lifecycle.setCurrentState(Lifecycle.State.RESUMED);
+        }
+
+        void destroy() {
+            lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_DESTROY);
+        }
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return lifecycle;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.projectthree;
+
+import java.util.Comparator;
+
+/**
+ * The orderings offered by the sort spinner on the inventory screen
+ * Each comparator breaks ties by natural name order, so every item has exactly one position
+ * Each criterion also names the stored field a server-side query orders by
+ */
+public enum SortCriterion {
+    NAME("nameLower", Comparator.comparing(Item::getNaturalKey)),
+    QUANTITY("quantity", Comparator.comparingInt(Item::getQuantity).thenComparing(Item::getNaturalKey)),
+    DATE("epochDay", Comparator.comparingLong(Item::getEpochDay).thenComparing(Item::getNaturalKey));
+
+    private final String fieldName;
+    private final Comparator<Item> comparator;
+
+    SortCriterion(String fieldName, Comparator<Item> comparator) {
+        this.fieldName = fieldName;
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return - The ascending order for this criterion
+     */
+    public Comparator<Item> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return - The document field this criterion orders by in queries
+     */
+    public String fieldName() {
+        return fieldName;
+    }
+}
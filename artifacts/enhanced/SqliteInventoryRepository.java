@@ -0,0 +1,210 @@
+package com.example.projectthree;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * SqliteInventoryRepository stores a location's inventory in the original app's SQLite Items table
+ * All database work runs in order on one background thread, and the database stays open
+ * until close(). Multi-item writes run in a single transaction.
+ * Changes are delivered through the callback executor.
+ */
+public class SqliteInventoryRepository implements InventoryRepository {
+
+    private final InventoryDbHelper dbHelper;
+    private final String locationId;
+    private final Executor callbackExecutor;
+    private final ExecutorService dbExecutor = Executors.newSingleThreadExecutor();
+    private final List<ItemChangeListener> listeners = new ArrayList<>(); // Only touched on dbExecutor
+
+    /**
+     * @param context - Used to open the location's database
+     * @param locationId - The location whose inventory is stored
+     * @param callbackExecutor - Runs every listener callback
+     */
+    public SqliteInventoryRepository(Context context, String locationId, Executor callbackExecutor) {
+        this.dbHelper = new InventoryDbHelper(context, locationId);
+        this.locationId = locationId;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Void> addItem(Item item) {
+        return CompletableFuture.runAsync(
+                () -> notifyListeners(Collections.singletonList(upsert(dbHelper.getWritableDatabase(), item))),
+                dbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> addItems(List<Item> items) {
+        return CompletableFuture.runAsync(() -> {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            List<ItemChange> changes = new ArrayList<>(items.size());
+            db.beginTransaction();
+            try {
+                for (Item item : items) {
+                    changes.add(upsert(db, item));
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            notifyListeners(changes);
+        }, dbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateItemQuantity(String itemName, int newQuantity) {
+        return CompletableFuture.runAsync(() -> {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            long today = InventoryDates.today();
+            SQLiteStatement update = db.compileStatement(InventoryDbHelper.SET_QUANTITY_SQL);
+            try {
+                update.bindLong(1, newQuantity);
+                bindStamp(update, today, itemName);
+                if (update.executeUpdateDelete() == 0) throw new NoSuchElementException("No such item: " + itemName);
+            } finally {
+                update.close();
+            }
+            notifyModified(db, Collections.singletonList(itemName));
+        }, dbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> adjustQuantity(String itemName, int delta) {
+        return adjustQuantities(Collections.singletonMap(itemName, delta));
+    }
+
+    /**
+     * Applies every increment in one transaction, using a single compiled statement
+     *
+     * @return - A future that fails, with nothing applied, if any of the items does not exist
+     */
+    @Override
+    public CompletableFuture<Void> adjustQuantities(Map<String, Integer> deltas) {
+        return CompletableFuture.runAsync(() -> {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            long today = InventoryDates.today();
+            SQLiteStatement adjust = db.compileStatement(InventoryDbHelper.ADJUST_QUANTITY_SQL);
+            db.beginTransaction();
+            try {
+                for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+                    adjust.bindLong(1, delta.getValue());
+                    bindStamp(adjust, today, delta.getKey());
+                    if (adjust.executeUpdateDelete() == 0) {
+                        throw new NoSuchElementException("No such item: " + delta.getKey());
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+                adjust.close();
+            }
+            notifyModified(db, new ArrayList<>(deltas.keySet()));
+        }, dbExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteItem(String itemName) {
+        return CompletableFuture.runAsync(() -> {
+            int deleted = dbHelper.getWritableDatabase()
+                    .delete(InventoryDbHelper.ITEM_TABLE, InventoryDbHelper.WHERE_ITEM_NAME, new String[]{itemName});
+            if (deleted > 0) {
+                notifyListeners(Collections.singletonList(new ItemChange(ItemChange.Type.REMOVED, itemName, null)));
+            }
+        }, dbExecutor);
+    }
+
+    /**
+     * Reads a page using the primary key index on itemName
+     */
+    @Override
+    public CompletableFuture<List<Item>> loadPage(String startAfter, int pageSize) {
+        return CompletableFuture.supplyAsync(() -> {
+            String selection = startAfter == null ? null : InventoryDbHelper.COLUMN_ITEM_NAME + " > ?";
+            String[] args = startAfter == null ? null : new String[]{startAfter};
+            try (Cursor cursor = dbHelper.getReadableDatabase().query(InventoryDbHelper.ITEM_TABLE,
+                    InventoryDbHelper.ITEM_COLUMNS, selection, args, null, null,
+                    InventoryDbHelper.COLUMN_ITEM_NAME, String.valueOf(pageSize))) {
+                return InventoryDbHelper.readItems(cursor, locationId);
+            }
+        }, dbExecutor);
+    }
+
+    @Override
+    public Subscription listenToItems(ItemChangeListener listener) {
+        dbExecutor.execute(() -> {
+            listeners.add(listener);
+            List<ItemChange> initial = new ArrayList<>();
+            try (Cursor cursor = dbHelper.getReadableDatabase()
+                    .query(InventoryDbHelper.ITEM_TABLE, InventoryDbHelper.ITEM_COLUMNS, null, null, null, null, null)) {
+                for (Item item : InventoryDbHelper.readItems(cursor, locationId)) {
+                    initial.add(new ItemChange(ItemChange.Type.ADDED, item.getItemName(), item));
+                }
+            }
+            callbackExecutor.execute(() -> listener.onItemChanges(initial));
+        });
+        return () -> dbExecutor.execute(() -> listeners.remove(listener));
+    }
+
+    /**
+     * Finishes queued work, then closes the database; the repository cannot be used afterwards
+     */
+    public void close() {
+        dbExecutor.execute(dbHelper::close);
+        dbExecutor.shutdown();
+    }
+
+    /**
+     * Updates the item's row, inserting it if there is none
+     */
+    private ItemChange upsert(SQLiteDatabase db, Item item) {
+        int updated = db.update(InventoryDbHelper.ITEM_TABLE, InventoryDbHelper.toValues(item),
+                InventoryDbHelper.WHERE_ITEM_NAME, new String[]{item.getItemName()});
+        if (updated == 0) db.insertOrThrow(InventoryDbHelper.ITEM_TABLE, null, InventoryDbHelper.toValues(item));
+        return new ItemChange(updated == 0 ? ItemChange.Type.ADDED : ItemChange.Type.MODIFIED, item.getItemName(), item);
+    }
+
+    private static void bindStamp(SQLiteStatement statement, long epochDay, String itemName) {
+        statement.bindString(2, InventoryDates.format(epochDay));
+        statement.bindLong(3, epochDay);
+        statement.bindString(4, itemName);
+    }
+
+    /**
+     * Re-reads the updated rows and reports them as MODIFIED
+     */
+    private void notifyModified(SQLiteDatabase db, List<String> itemNames) {
+        if (listeners.isEmpty()) return;
+        List<ItemChange> changes = new ArrayList<>(itemNames.size());
+        for (String itemName : itemNames) {
+            try (Cursor cursor = db.query(InventoryDbHelper.ITEM_TABLE, InventoryDbHelper.ITEM_COLUMNS,
+                    InventoryDbHelper.WHERE_ITEM_NAME, new String[]{itemName}, null, null, null)) {
+                if (cursor.moveToFirst()) {
+                    changes.add(new ItemChange(ItemChange.Type.MODIFIED, itemName,
+                            InventoryDbHelper.fromCursor(cursor, locationId)));
+                }
+            }
+        }
+        notifyListeners(changes);
+    }
+
+    private void notifyListeners(List<ItemChange> changes) {
+        if (changes.isEmpty()) return;
+        for (ItemChangeListener listener : listeners) {
+            callbackExecutor.execute(() -> listener.onItemChanges(changes));
+        }
+    }
+}
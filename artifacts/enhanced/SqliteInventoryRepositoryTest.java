@@ -0,0 +1,28 @@
+package com.example.projectthree;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Runs the repository conformance and throughput suite on SqliteInventoryRepository,
+ * using Robolectric's SQLite on the JVM
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SqliteInventoryRepositoryTest extends InventoryRepositoryContractTest {
+
+    private static int databases;
+
+    @Override
+    protected InventoryRepository createRepository() {
+        // A new database per test, so every test starts empty
+        return new SqliteInventoryRepository(ApplicationProvider.getApplicationContext(),
+                "contract-test-" + databases++, Runnable::run);
+    }
+
+    @Override
+    protected void closeRepository() {
+        ((SqliteInventoryRepository) repository).close();
+    }
+}